@@ -18,7 +18,12 @@ android {
     }
 
     buildTypes {
+        debug {
+            buildConfigField("boolean", "VERBOSE_LOGS", "true")
+        }
         release {
+            // A literal, unlike DEBUG, so javac drops every branch on it from release builds
+            buildConfigField("boolean", "VERBOSE_LOGS", "false")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -33,11 +38,22 @@ android {
     kotlinOptions {
         jvmTarget = "1.8"
     }
+    buildFeatures {
+        buildConfig = true
+    }
+    testOptions {
+        // The demo tests read their text from the app's resources
+        unitTests.isIncludeAndroidResources = true
+    }
 }
 
 dependencies {
+    implementation(project(":text-engine"))
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("com.google.android.material:material:1.11.0")
     implementation("com.vuzix:ultralite-sdk-android:1.7")
     implementation("org.jetbrains.kotlin:kotlin-script-runtime:1.9.0")
+    testImplementation("junit:junit:4.13.2")
+    // Page layouts are measured with Paint, so the tests run on Robolectric's native graphics
+    testImplementation("org.robolectric:robolectric:4.11.1")
 }
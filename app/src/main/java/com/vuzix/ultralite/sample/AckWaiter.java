@@ -4,6 +4,15 @@ import android.util.Log;
 
 import com.vuzix.ultralite.UltraliteSDK;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class demonstrates a mechanism that can be used to synchronize data being received by the
  * glasses.
@@ -15,44 +24,107 @@ import com.vuzix.ultralite.UltraliteSDK;
  *
  * If we delay the phone UI, we can make the glasses UI and the phone UI update at almost the exact
  * same moment for a seamless experience.
+ *
+ * Each request returns a future, so any number of acks can be outstanding at once and a sender can
+ * keep the link busy instead of stopping to wait after every command. Requests that are not
+ * answered in time fail with a {@link TimeoutException}, so a dropped ack never hangs a worker.
+ * Round-trip times of all answered requests go into one app-wide {@link LatencyHistogram}.
  */
 class AckWaiter {
-    private boolean replied;
-    private final UltraliteSDK ultralite;
-    private String message;
+    private static final String TAG = "AckWaiter";
+    static final long DEFAULT_TIMEOUT_MS = 3000;
+
+    // One daemon thread times out every outstanding request in the app
+    private static final ScheduledExecutorService TIMEOUTS = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AckWaiter-timeouts");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final LatencyHistogram ROUND_TRIPS = new LatencyHistogram();
+
+    private final GlassesDevice device;
+    private final AtomicInteger outstanding = new AtomicInteger();
 
     public AckWaiter(UltraliteSDK ultralite) {
-        this.ultralite = ultralite;
+        this(GlassesDevice.of(ultralite));
+    }
+
+    AckWaiter(GlassesDevice device) {
+        this.device = device;
     }
 
     /**
-     * Simply call this method and the current thread will become idle until the glasses reply that this
-     * message has been received. This is useful in this demo scenario since we have a worker thread
-     * that is sequentially sending each screen.
+     * Request an acknowledgement without waiting for it.
      *
-     * @param message A unique String to identify this wait condition
+     * @param message A String to identify this request in logs and timeout errors
+     * @return a future that completes with the round-trip time in nanoseconds when the glasses
+     * reply, or exceptionally with a {@link TimeoutException} after {@link #DEFAULT_TIMEOUT_MS}
      */
-    public void waitForAck(String message) {
-        replied = false;
-        this.message = message;
+    public CompletableFuture<Long> requestAck(String message) {
+        return requestAck(message, DEFAULT_TIMEOUT_MS);
+    }
+
+    public CompletableFuture<Long> requestAck(String message, long timeoutMs) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        long sentAt = System.nanoTime();
+        outstanding.incrementAndGet();
         // Request the ack and provide a callback method
-        ultralite.requestAcknowledgement( () -> {
-            synchronized(this) {
-                // Simply set the bool and notify
-                replied = true;
-                this.notify();
+        device.requestAcknowledgement(() -> {
+            long roundTrip = System.nanoTime() - sentAt;
+            if (future.complete(roundTrip)) {
+                ROUND_TRIPS.recordNanos(roundTrip);
             }
         });
-        // Then wait
-        synchronized(this) {
-            while (!replied) {
-                try {
-                    this.wait();
-                } catch (InterruptedException e) {
-                    Log.i(MainActivity.TAG, "Wait for \"" + message + "\" interrupted ", e);
-                    break;
-                }
-            }
+        ScheduledFuture<?> timeout = TIMEOUTS.schedule(() -> future.completeExceptionally(
+                new TimeoutException("No ack for \"" + message + "\" after " + timeoutMs + " ms")),
+                timeoutMs, TimeUnit.MILLISECONDS);
+        future.whenComplete((roundTrip, error) -> {
+            timeout.cancel(false);
+            outstanding.decrementAndGet();
+        });
+        return future;
+    }
+
+    /**
+     * Simply call this method and the current thread will become idle until the glasses reply that this
+     * message has been received, or the request times out. This is useful in this demo scenario since
+     * we have a worker thread that is sequentially sending each screen.
+     *
+     * @param message A unique String to identify this wait condition
+     */
+    public void waitForAck(String message) {
+        await(requestAck(message), message);
+    }
+
+    /**
+     * Wait for a future from {@link #requestAck}. A timeout is logged rather than thrown.
+     *
+     * @return false if the request timed out or the wait was interrupted
+     */
+    static boolean await(CompletableFuture<Long> ack, String message) {
+        try {
+            ack.get();
+            return true;
+        } catch (InterruptedException e) {
+            Log.i(MainActivity.TAG, "Wait for \"" + message + "\" interrupted ", e);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.w(TAG, e.getCause().getMessage());
         }
+        return false;
+    }
+
+    /**
+     * @return the number of requests from this instance still waiting for a reply
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    /**
+     * @return round-trip times of every ack answered in this app
+     */
+    static LatencyHistogram getRoundTrips() {
+        return ROUND_TRIPS;
     }
 }
@@ -0,0 +1,71 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.sample.text.Page;
+
+/**
+ * Renders a {@link Page} off-screen into a single image, so the whole page can be sent to the
+ * glasses as one background draw instead of one command per line.
+ *
+ * Lines are drawn at the same spacing and font size as the text fields of
+ * {@link CanvasLayout.PageSession}, white on black, so both modes look alike. A renderer can also
+ * draw just the lines after the text fields, for pages that use both. One bitmap is reused for
+ * every page.
+ *
+ * The image is 2 bits per pixel because the background does not allow single-bit images.
+ */
+class BitmapPageRenderer {
+    static final int COLOR_FORMAT = LVGLImage.CF_INDEXED_2_BIT;
+    private static final int BITS_PER_PIXEL = 2;
+
+    private final int width;
+    private final int height;
+    private final int lineSpacing;
+    private final Bitmap bitmap;
+    private final Canvas bitmapCanvas;
+    private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final float baseline;
+
+    BitmapPageRenderer(int width, int lines, int lineSpacing, float fontSize) {
+        this.width = width;
+        this.height = lines * lineSpacing;
+        this.lineSpacing = lineSpacing;
+        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bitmapCanvas = new Canvas(bitmap);
+        paint.setTypeface(Typeface.SANS_SERIF);
+        paint.setTextSize(fontSize);
+        paint.setColor(Color.WHITE);
+        // Lines sit at the top of their slot, like a top-left anchored text field
+        baseline = -paint.ascent();
+    }
+
+    LVGLImage render(Page page) {
+        return render(page, 0);
+    }
+
+    /**
+     * Render the page's lines from {@code firstLine} on, as many as the image holds.
+     */
+    LVGLImage render(Page page, int firstLine) {
+        bitmapCanvas.drawColor(Color.BLACK);
+        for (int i = firstLine; i < page.lines.length && (i - firstLine) * lineSpacing < height; i++) {
+            bitmapCanvas.drawText(page.lines[i], 0, (i - firstLine) * lineSpacing + baseline, paint);
+        }
+        return LVGLImage.fromBitmap(bitmap, COLOR_FORMAT);
+    }
+
+    /**
+     * @return the approximate size of one rendered page on the wire: byte-aligned rows of indexed
+     * pixels plus the palette
+     */
+    int imageBytes() {
+        int rowBytes = (width * BITS_PER_PIXEL + 7) / 8;
+        return rowBytes * height + (1 << BITS_PER_PIXEL) * 4;
+    }
+}
@@ -0,0 +1,411 @@
+package com.vuzix.ultralite.sample;
+
+import android.content.Context;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.vuzix.ultralite.sample.text.IntList;
+import com.vuzix.ultralite.sample.text.MappedTextStore;
+import com.vuzix.ultralite.sample.text.ParagraphExtractor;
+import com.vuzix.ultralite.sample.text.SentenceChunker;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A compact binary index of the bundled book, built once and kept in app-private storage.
+ *
+ * The extracted text of every chapter lives in a {@link MappedTextStore} next to the index, and the
+ * index holds the chapter list plus, for every chapter, where its text sits in the store and the
+ * paragraph, chunk and display-line boundaries as offsets into it. Both files are keyed by a hash of
+ * what their content depends on: the installed app, which brings the assets, the index
+ * {@link #VERSION}, and the font, size and width lines are wrapped to on this phone. Computing the
+ * key reads no assets, and after the first launch neither the TOC nor any chapter XHTML is parsed
+ * again. Sending a chapter is a table lookup, one sequential read of the chapter's offsets, and
+ * zero-copy views over the mapped text.
+ *
+ * Building the index parses the whole book, so the UI gets it from {@link #load}, which opens or
+ * builds it on a background thread. If any chapter cannot be read the build fails as a whole and
+ * nothing is kept, on disk or in memory, so the next {@link #load} or {@link #get} tries again.
+ *
+ * Index layout (big-endian, strings are a length-prefixed UTF-8 byte run):
+ * <pre>
+ *   int magic, int version, byte[32] key, int chapterCount
+ *   chapterCount x { string title, string filePath, long sectionOffset }
+ *   per chapter section:
+ *     int textOffset, int textLength
+ *     int paragraphCount, int[paragraphCount] paragraphOffsets
+ *     int chunkBoundCount, int[chunkBoundCount] chunkBounds
+ *     int lineBoundCount, int[lineBoundCount] lineBounds
+ * </pre>
+ * All offsets inside a section are relative to the chapter's text, and bounds are
+ * {@code start, end} pairs.
+ */
+public class BookIndex {
+    private static final String TAG = "BookIndex";
+    static final String BOOK_ASSET_DIR = "alice-xhtml";
+    private static final String INDEX_DIR = "book-index";
+    private static final int MAGIC = 0x424b4958; // "BKIX"
+    // Bump whenever the extraction, chunking or wrapping output changes so stale indexes rebuild
+    private static final int VERSION = 4;
+
+    private static BookIndex instance;
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final MutableLiveData<BookIndex> loaded = new MutableLiveData<>();
+    // True while a load started by load(Context) is running
+    private static boolean loading;
+
+    private final File file;
+    private final MappedTextStore textStore;
+    private final List<ChapterItem> chapters;
+    private final long[] sectionOffsets;
+
+    /**
+     * The decoded section of one chapter. {@link #text} is a view over the mapped store and every
+     * offset is relative to it.
+     */
+    static class ChapterContent {
+        final CharSequence text;
+        final int[] paragraphOffsets;
+        final int[] chunkBounds;
+        final int[] lineBounds;
+
+        ChapterContent(CharSequence text, int[] paragraphOffsets, int[] chunkBounds, int[] lineBounds) {
+            this.text = text;
+            this.paragraphOffsets = paragraphOffsets;
+            this.chunkBounds = chunkBounds;
+            this.lineBounds = lineBounds;
+        }
+    }
+
+    private BookIndex(File file, MappedTextStore textStore, List<ChapterItem> chapters, long[] sectionOffsets) {
+        this.file = file;
+        this.textStore = textStore;
+        this.chapters = Collections.unmodifiableList(chapters);
+        this.sectionOffsets = sectionOffsets;
+    }
+
+    /**
+     * Open the index for the bundled book in the background, building and persisting it on first
+     * use. Safe to call from the main thread. If the last attempt failed, this tries again.
+     *
+     * @return the index, once it is open; an empty index if it could not be built
+     */
+    public static LiveData<BookIndex> load(Context context) {
+        Context appContext = context.getApplicationContext();
+        synchronized (BookIndex.class) {
+            if (!loading && instance == null) {
+                loading = true;
+                LOADER.execute(() -> {
+                    try {
+                        loaded.postValue(get(appContext));
+                    } finally {
+                        synchronized (BookIndex.class) {
+                            loading = false;
+                        }
+                    }
+                });
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Open the index for the bundled book, building and persisting it on first use. This can parse
+     * the whole book, so call it only off the main thread; the UI uses {@link #load}.
+     *
+     * @return the index, or an empty one if it could not be built; that is not kept, so the next
+     * call tries again
+     */
+    public static synchronized BookIndex get(Context context) {
+        if (instance == null) {
+            instance = openOrBuild(context.getApplicationContext());
+        }
+        return instance != null ? instance : empty();
+    }
+
+    public List<ChapterItem> getChapters() {
+        return chapters;
+    }
+
+    /**
+     * @return the position of the chapter whose file matches {@code filePath} (fragments are
+     * ignored), or -1
+     */
+    public int indexOf(String filePath) {
+        String path = stripFragment(filePath);
+        for (int i = 0; i < chapters.size(); i++) {
+            if (stripFragment(chapters.get(i).filePath).equals(path)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read one chapter's section with a single seek and sequential read.
+     */
+    public ChapterContent readChapter(int chapterIndex) throws IOException {
+        try (FileInputStream fis = new FileInputStream(file)) {
+            fis.getChannel().position(sectionOffsets[chapterIndex]);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fis, 8 * 1024));
+            int textOffset = in.readInt();
+            int textLength = in.readInt();
+            int[] paragraphOffsets = readInts(in);
+            int[] chunkBounds = readInts(in);
+            int[] lineBounds = readInts(in);
+            CharSequence text = textStore.subSequence(textOffset, textOffset + textLength);
+            return new ChapterContent(text, paragraphOffsets, chunkBounds, lineBounds);
+        }
+    }
+
+    static String stripFragment(String chapterFilePath) {
+        int hashIndex = chapterFilePath.indexOf('#');
+        return hashIndex != -1 ? chapterFilePath.substring(0, hashIndex) : chapterFilePath;
+    }
+
+    /**
+     * @return the index, or null if it could not be built
+     */
+    private static BookIndex openOrBuild(Context context) {
+        File dir = new File(context.getFilesDir(), INDEX_DIR);
+        byte[] key;
+        try {
+            key = indexKey(context);
+        } catch (PackageManager.NameNotFoundException e) {
+            // Our own package is always installed, but don't guess a key if it somehow isn't
+            Log.e(TAG, "Unable to read package info", e);
+            return null;
+        }
+        String name = toHex(key);
+        File indexFile = new File(dir, name + ".idx");
+        File textFile = new File(dir, name + ".txt");
+        if (indexFile.exists() && textFile.exists()) {
+            try {
+                return read(indexFile, textFile, key);
+            } catch (IOException e) {
+                Log.w(TAG, "Discarding unreadable index " + indexFile.getName(), e);
+            }
+        }
+        // Anything else in the directory belongs to another key, or is a failed build
+        deleteContents(dir);
+        dir.mkdirs();
+        try {
+            build(context, indexFile, textFile, key);
+            return read(indexFile, textFile, key);
+        } catch (IOException e) {
+            // Keep nothing, so a partial book is never served and the next launch builds again
+            Log.e(TAG, "Unable to build book index", e);
+            deleteContents(dir);
+            return null;
+        }
+    }
+
+    private static void deleteContents(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+    }
+
+    private static BookIndex empty() {
+        return new BookIndex(null, null, new ArrayList<>(), new long[0]);
+    }
+
+    private static BookIndex read(File indexFile, File textFile, byte[] key) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Unsupported index format");
+            }
+            byte[] storedKey = new byte[key.length];
+            in.readFully(storedKey);
+            if (!Arrays.equals(storedKey, key)) {
+                throw new IOException("Index does not match its key");
+            }
+            int count = in.readInt();
+            List<ChapterItem> chapters = new ArrayList<>(count);
+            long[] offsets = new long[count];
+            for (int i = 0; i < count; i++) {
+                chapters.add(new ChapterItem(readString(in), readString(in)));
+                offsets[i] = in.readLong();
+            }
+            Log.d(TAG, "Loaded index with " + count + " chapters");
+            return new BookIndex(indexFile, MappedTextStore.open(textFile), chapters, offsets);
+        }
+    }
+
+    /**
+     * Parse the TOC and every chapter, writing the extracted text to {@code textFile} and the
+     * index to {@code indexFile}. Each file is written under a temporary name and renamed into
+     * place, the text first, so a crash never leaves an index pointing at missing text. Any
+     * chapter that cannot be read fails the whole build.
+     */
+    private static void build(Context context, File indexFile, File textFile, byte[] key) throws IOException {
+        long start = System.currentTimeMillis();
+        List<ChapterItem> chapters = TocParser.parseToc(context);
+        if (chapters.isEmpty()) {
+            throw new IOException("No chapters in toc.xhtml");
+        }
+
+        // Encode each chapter section first so the table can be written with final offsets
+        List<byte[]> sections = new ArrayList<>(chapters.size());
+        File textTmp = new File(textFile.getPath() + ".tmp");
+        try (MappedTextStore.Writer textOut = new MappedTextStore.Writer(textTmp)) {
+            for (ChapterItem chapter : chapters) {
+                sections.add(encodeSection(context, chapter, textOut));
+            }
+        }
+        moveIntoPlace(textTmp, textFile);
+
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.write(key);
+        out.writeInt(chapters.size());
+        long tableSize = 0;
+        for (ChapterItem chapter : chapters) {
+            tableSize += utf8Size(chapter.title) + utf8Size(chapter.filePath) + 8;
+        }
+        long offset = out.size() + tableSize;
+        for (int i = 0; i < chapters.size(); i++) {
+            writeString(out, chapters.get(i).title);
+            writeString(out, chapters.get(i).filePath);
+            out.writeLong(offset);
+            offset += sections.get(i).length;
+        }
+
+        File indexTmp = new File(indexFile.getPath() + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(indexTmp)) {
+            header.writeTo(fos);
+            for (byte[] section : sections) {
+                fos.write(section);
+            }
+            fos.getFD().sync();
+        }
+        moveIntoPlace(indexTmp, indexFile);
+        Log.d(TAG, "Built index for " + chapters.size() + " chapters in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private static byte[] encodeSection(Context context, ChapterItem chapter, MappedTextStore.Writer textOut) throws IOException {
+        StringBuilder allText = new StringBuilder();
+        IntList paragraphOffsets = new IntList();
+        Tracer tracer = Tracer.get();
+        long start = System.nanoTime();
+        try (InputStream is = context.getAssets().open(BOOK_ASSET_DIR + "/" + stripFragment(chapter.filePath))) {
+            ParagraphExtractor.extract(is, text -> {
+                paragraphOffsets.add(allText.length());
+                allText.append(text).append(' ');
+            });
+        } catch (IOException e) {
+            throw new IOException("Unable to index " + chapter.filePath, e);
+        }
+        long chunkStart = System.nanoTime();
+        tracer.span(Tracer.Stage.XHTML_EXTRACT, start);
+        int[] chunkBounds = SentenceChunker.chunkBounds(allText);
+        long wrapStart = System.nanoTime();
+        tracer.span(Tracer.Stage.CHUNK, chunkStart);
+        int[] lineBounds = CanvasLayout.PAGINATOR.wrapChunks(allText, chunkBounds);
+        tracer.span(Tracer.Stage.WRAP, wrapStart);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + 4 * (paragraphOffsets.size() + chunkBounds.length + lineBounds.length));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(textOut.append(allText));
+        out.writeInt(allText.length());
+        writeInts(out, paragraphOffsets.toArray());
+        writeInts(out, chunkBounds);
+        writeInts(out, lineBounds);
+        return bytes.toByteArray();
+    }
+
+    private static void moveIntoPlace(File tmp, File file) throws IOException {
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Unable to move " + tmp.getName() + " into place");
+        }
+    }
+
+    /**
+     * SHA-256 over what the index content depends on. The installed package stands in for the
+     * assets: they can only change with an update, which changes its update time. Lines are
+     * wrapped with the phone's own font, so the build fingerprint, which changes with a system
+     * update that could replace that font, and the wrap font, size and width are included too.
+     */
+    private static byte[] indexKey(Context context) throws PackageManager.NameNotFoundException {
+        PackageInfo info = context.getPackageManager().getPackageInfo(context.getPackageName(), 0);
+        String key = VERSION + "|" + info.getLongVersionCode() + "|" + info.lastUpdateTime
+                + "|" + Build.FINGERPRINT + "|" + CanvasLayout.WRAP_KEY;
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Android device has SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int[] readInts(DataInputStream in) throws IOException {
+        int[] values = new int[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    // DataOutputStream.writeUTF() is limited to 64K, which a long chunk could exceed
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static int utf8Size(String s) {
+        return 4 + s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+        }
+        return sb.toString();
+    }
+}
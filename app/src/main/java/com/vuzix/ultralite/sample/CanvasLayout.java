@@ -1,23 +1,57 @@
 package com.vuzix.ultralite.sample;
 
 import android.content.Context;
+import android.graphics.Paint;
+import android.graphics.Typeface;
 import com.vuzix.ultralite.Anchor;
 import com.vuzix.ultralite.Layout;
 import com.vuzix.ultralite.TextAlignment;
 import com.vuzix.ultralite.TextWrapMode;
 import com.vuzix.ultralite.UltraliteColor;
 import com.vuzix.ultralite.UltraliteSDK;
+import com.vuzix.ultralite.sample.text.AdvanceTable;
+import com.vuzix.ultralite.sample.text.ChapterPaginator;
+import com.vuzix.ultralite.sample.text.LineBreaker;
+import com.vuzix.ultralite.sample.text.LogSampler;
+import com.vuzix.ultralite.sample.text.Page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * CanvasLayout for chapter content only (no demo content)
  */
 public class CanvasLayout {
     
+    static final int TEXT_FIELD_WIDTH = UltraliteSDK.Canvas.WIDTH - 40; // More padding
+    // Pixel size that matches the glasses' built-in text field font closely enough to fill lines
+    static final float GLASSES_FONT_SIZE = 30f;
+
+    // Advances are measured once per 256-character page and shared by every wrap
+    private static final AdvanceTable GLYPH_ADVANCES = new AdvanceTable((chars, advances) -> {
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(Typeface.SANS_SERIF);
+        paint.setTextSize(GLASSES_FONT_SIZE);
+        paint.getTextWidths(chars, 0, chars.length, advances);
+    });
+    private static final LineBreaker LINE_BREAKER = new LineBreaker(GLYPH_ADVANCES, TEXT_FIELD_WIDTH);
+    // What wrapped lines depend on besides the text; the book index is keyed on it
+    static final String WRAP_KEY = "sans-serif " + GLASSES_FONT_SIZE + "px in " + TEXT_FIELD_WIDTH + "px";
+    // Wraps and pages chapter text for these glasses, a page being what the text fields hold
+    static final ChapterPaginator PAGINATOR = new ChapterPaginator(LINE_BREAKER,
+            PageLayout.forMode(PageMode.TEXT_FIELDS).getLinesPerPage(), Logs.LOGCAT);
+    // Every line sent is logged only in verbose mode; otherwise one in this many
+    private static final LogSampler LINES_LOGGED = new LogSampler(60);
+    // Page commits that may be waiting for an ack from the glasses before the next one blocks
+    private static final int MAX_COMMITS_IN_FLIGHT = 2;
+
     /**
-     * Show chapter content on the glasses display while keeping the phone screen awake
+     * Show pre-wrapped chapter lines, given as {@code start, end} offset pairs into
+     * {@code text}, on the glasses display while keeping the phone screen awake
      * to prevent interruption during long reading sessions
      */
-    public static void showChapterContent(Context context, UltraliteSDK ultralite, String[] contentParts) {
+    public static void showChapterLines(Context context, UltraliteSDK ultralite, CharSequence text, int[] lineBounds,
+                                        GlassesExecutor.CancellationToken token) {
         // Keep screen awake during content display
         android.app.Activity activity = null;
         if (context instanceof android.app.Activity) {
@@ -25,190 +59,213 @@ public class CanvasLayout {
             activity.getWindow().addFlags(android.view.WindowManager.LayoutParams.FLAG_KEEP_SCREEN_ON);
             android.util.Log.d("CanvasLayout", "Screen will stay awake during content display");
         }
-        // Ensure we have a clean canvas layout
-        ultralite.setLayout(Layout.CANVAS, 0, true);
         
-        // Wait a moment for the layout to be set
+        PageSession session = null;
         try {
-            Thread.sleep(100);
-        } catch (InterruptedException ignored) {}
-        
-        int maxLines = 6; // Increased from 5 to 6 lines per screen
-        int textFieldWidth = UltraliteSDK.Canvas.WIDTH - 40; // More padding
-        int textFieldHeight = 35; // Conservative height to prevent overlapping
-        int[] textIds = new int[maxLines];
-        int startY = 25; // Top margin
-        int lineSpacing = 48; // Reduced from 60 to 48 pixels to fit 6 lines
-        
-        // Create text fields for chapter content with better positioning
-        for (int i = 0; i < maxLines; i++) {
-            int yPosition = startY + (i * lineSpacing);
-            textIds[i] = ultralite.getCanvas().createText("", TextAlignment.LEFT, UltraliteColor.WHITE, 
-                Anchor.TOP_LEFT, 20, yPosition, textFieldWidth, textFieldHeight, 
-                TextWrapMode.WRAP, true); // Back to WRAP since NONE doesn't exist
-        }
-        ultralite.getCanvas().commit();
-        
-        // Filter out very short content parts that might cause display issues
-        java.util.List<String> filteredParts = new java.util.ArrayList<>();
-        for (String part : contentParts) {
-            if (part != null && part.trim().length() > 10) { // Minimum 10 characters
-                filteredParts.add(part);
-            } else {
-                android.util.Log.d("CanvasLayout", "Filtering out short part: \"" + part + "\" (length: " + (part != null ? part.length() : 0) + ")");
-            }
-        }
-        
-        // Convert all parts into a single continuous stream of lines
-        java.util.List<String> allLines = new java.util.ArrayList<>();
-        for (int partIndex = 0; partIndex < filteredParts.size(); partIndex++) {
-            String currentPart = filteredParts.get(partIndex);
-            
-            // Log the actual content part being processed
-            android.util.Log.d("CanvasLayout", "Part " + (partIndex + 1) + "/" + filteredParts.size() + ": \"" + currentPart + "\" (length: " + currentPart.length() + ")");
-            
-            // Split the current part into lines that fit the display
-            String[] lines = splitTextIntoLines(currentPart, textFieldWidth);
-            
-            android.util.Log.d("CanvasLayout", "Part " + (partIndex + 1) + "/" + filteredParts.size() + " split into " + lines.length + " lines");
-            
-            // Add all lines from this part to the continuous stream
-            for (String line : lines) {
-                if (line != null && !line.trim().isEmpty()) {
-                    allLines.add(line.trim());
-                }
+            session = PageSession.open(GlassesDevice.of(ultralite), ReadingPacer.DEFAULT_WORDS_PER_MINUTE);
+            for (Page page : Page.paginate(0, text, lineBounds, session.getLinesPerPage())) {
+                session.showPage(page);
+                // Stay on the page as long as it takes to read, or until the wearer taps
+                session.awaitReader(token, page);
             }
-        }
-        
-        android.util.Log.d("CanvasLayout", "Total lines to display: " + allLines.size());
-        
-        // Display all lines continuously, filling each screen completely
-        int lineIndex = 0;
-        while (lineIndex < allLines.size()) {
-            // Clear all text fields first
-            for (int i = 0; i < maxLines; i++) {
-                ultralite.getCanvas().updateText(textIds[i], "");
-            }
-            
-            // Fill text fields with lines, maximizing screen usage
-            int displayIndex = 0;
-            while (lineIndex < allLines.size() && displayIndex < maxLines) {
-                String line = allLines.get(lineIndex);
-                ultralite.getCanvas().updateText(textIds[displayIndex], line);
-                android.util.Log.d("CanvasLayout", "Displaying line " + (displayIndex + 1) + ": \"" + line + "\" (length: " + line.length() + ")");
-                displayIndex++;
-                lineIndex++;
+        } catch (InterruptedException e) {
+            android.util.Log.d("CanvasLayout", "Chapter content display interrupted");
+            Thread.currentThread().interrupt();
+        } finally {
+            if (session != null) {
+                session.close();
             }
-            ultralite.getCanvas().commit();
-            
-            try {
-                Thread.sleep(15000); // Wait 15 seconds before next screen
-            } catch (InterruptedException ignored) {}
         }
         
-        // Clean up text fields after done
-        for (int id : textIds) {
-            ultralite.getCanvas().removeText(id);
-        }
-        ultralite.getCanvas().commit();
-        
         // Note: We don't clear the FLAG_KEEP_SCREEN_ON here as the activity
         // should manage its own wake lock lifecycle
         android.util.Log.d("CanvasLayout", "Chapter content display completed");
     }
-    
+
     /**
-     * Split text into lines that fit within the specified width, preserving sentence boundaries
+     * How a {@link PageSession} puts pages on the glasses.
      */
-    private static String[] splitTextIntoLines(String text, int maxWidth) {
-        java.util.List<String> lines = new java.util.ArrayList<>();
-        
-        // Use more conservative character limit for smart glasses
-        int maxCharsPerLine = 40; // Fixed conservative limit for smart glasses
-        
-        android.util.Log.d("CanvasLayout", "Splitting text of length " + text.length() + " with max " + maxCharsPerLine + " chars per line");
-        
-        // First try to split by sentences to preserve meaning
-        String[] sentences = text.split("(?<=[.!?])\\s+");
-        StringBuilder currentLine = new StringBuilder();
-        
-        android.util.Log.d("CanvasLayout", "Found " + sentences.length + " sentences to process");
-        
-        // Process sentences to maintain context and meaning
-        for (String sentence : sentences) {
-            if (sentence.trim().isEmpty()) continue;
-            
-            // Check if entire sentence fits on current line
-            String testLine = currentLine.length() == 0 ? sentence.trim() : currentLine + " " + sentence.trim();
+    enum PageMode {
+        /** One text field per line, rendered by the glasses. Only changed lines are resent. */
+        TEXT_FIELDS,
+        /** The whole page rendered on the phone and drawn on the background as one image. */
+        BITMAP,
+        /**
+         * As many lines as there are text fields, and the lines that still fit below them drawn on
+         * the background, for the most lines per page.
+         */
+        MIXED
+    }
+
+    /**
+     * The canvas chapter pages are drawn into, from {@link #open} until {@link #close}.
+     *
+     * One session can show the pages of any number of chapters, so the layout and fields are set
+     * up once per send rather than once per chapter. All canvas traffic goes through the
+     * retained-mode {@link GlassesCanvas}, so fields whose text is unchanged are not resent, and
+     * commits are paced by acks from the glasses rather than by fixed sleeps. How long each page
+     * stays up is decided by a {@link ReadingPacer}, which listens for taps while the session is
+     * open.
+     *
+     * Where lines go, and so how many make a page, is planned by {@link PageLayout} for the
+     * session's mode; pages must be split with {@link #getLinesPerPage}.
+     *
+     * The session measures what each {@link PageMode} costs: the approximate payload bytes sent per
+     * page and the time from each page's commit to its ack. Both are logged on {@link #close}, so
+     * the modes can be compared on real glasses. If a {@link Tracer} trace was open when the session
+     * started, the first page's ack ends it and the trace is dumped on close.
+     */
+    static final class PageSession {
+        private final GlassesDevice device;
+        private final PageMode mode;
+        private final PageLayout layout;
+        private final GlassesCanvas canvas;
+        private final CommitPipeline pipeline;
+        private final ReadingPacer pacer;
+        private final int[] textIds;
+        private final String[] shownLines;
+        // Draws the lines after the text fields, if the layout has any
+        private final BitmapPageRenderer renderer;
+        private boolean backgroundBlank = true;
+        private final LatencyHistogram commitToAck = new LatencyHistogram();
+        private long payloadBytes;
+        private int pagesShown;
+        // The trace open when the session started, which ends when the first page is acked
+        private final int traceId = Tracer.get().currentTrace();
+
+        private PageSession(GlassesDevice device, int wordsPerMinute, PageMode mode) {
+            this.device = device;
+            this.mode = mode;
+            this.layout = PageLayout.forMode(mode);
+            this.canvas = GlassesCanvas.get(device);
+            this.pipeline = new CommitPipeline(device, MAX_COMMITS_IN_FLIGHT);
+            this.pacer = new ReadingPacer(wordsPerMinute);
+            this.textIds = new int[layout.fieldLines];
+            this.shownLines = new String[layout.fieldLines];
+            this.renderer = layout.backgroundLines > 0
+                    ? new BitmapPageRenderer(TEXT_FIELD_WIDTH, layout.backgroundLines, layout.lineSpacing, layout.fontSize)
+                    : null;
+        }
+
+        static PageSession open(GlassesDevice device, int wordsPerMinute) throws InterruptedException {
+            return open(device, wordsPerMinute, PageMode.TEXT_FIELDS);
+        }
+
+        int getLinesPerPage() {
+            return layout.getLinesPerPage();
+        }
+
+        /**
+         * Switch to a clean canvas layout and, for text fields, create the fields. Waits one round
+         * trip for the glasses to confirm the layout; the fields go out with the first page.
+         */
+        static PageSession open(GlassesDevice device, int wordsPerMinute, PageMode mode) throws InterruptedException {
+            PageSession session = new PageSession(device, wordsPerMinute, mode);
+            // Single taps are reported so the wearer can turn the page
+            long layoutStart = System.nanoTime();
+            // The layout is sent straight to the device, so must not overtake queued commits
+            LinkScheduler.get(device).awaitSent();
+            session.device.setLayout(Layout.CANVAS, 0, true, true, 1);
+            session.pipeline.sync();
+            Tracer.get().span(Tracer.Stage.SET_LAYOUT, layoutStart);
+            // Only once open can no longer throw, since the caller has no session to close until then
+            session.device.addEventListener(session.pacer);
             
-            if (testLine.length() <= maxCharsPerLine) {
-                // Entire sentence fits
-                if (currentLine.length() > 0) {
-                    currentLine.append(" ");
+            // Create text fields for chapter content with better positioning
+            for (int i = 0; i < session.layout.fieldLines; i++) {
+                session.textIds[i] = session.canvas.createText("", TextAlignment.LEFT, UltraliteColor.WHITE,
+                    Anchor.TOP_LEFT, PageLayout.LEFT, session.layout.lineTop(i), TEXT_FIELD_WIDTH, session.layout.lineHeight,
+                    TextWrapMode.WRAP, true); // Back to WRAP since NONE doesn't exist
+            }
+            return session;
+        }
+
+        /**
+         * Put the page on the glasses and commit.
+         */
+        void showPage(Page page) throws InterruptedException {
+            long stageStart = System.nanoTime();
+            int pageBytes = 0;
+            if (renderer != null) {
+                // The image covers the whole background area, so it replaces the previous lines
+                // entirely; a page that ends before it only needs it blanked once
+                boolean blank = page.lines.length <= layout.fieldLines;
+                if (!blank || !backgroundBlank) {
+                    canvas.drawBackground(renderer.render(page, layout.fieldLines), PageLayout.LEFT, layout.backgroundTop());
+                    pageBytes += renderer.imageBytes();
                 }
-                currentLine.append(sentence.trim());
-            } else {
-                // Sentence doesn't fit, finalize current line if it has content
-                if (currentLine.length() > 0) {
-                    lines.add(currentLine.toString());
-                    currentLine = new StringBuilder();
+                backgroundBlank = blank;
+            }
+            // Fill the text fields with the page's lines, and blank any left over
+            for (int displayIndex = 0; displayIndex < layout.fieldLines; displayIndex++) {
+                String line = displayIndex < page.lines.length ? page.lines[displayIndex] : "";
+                canvas.updateText(textIds[displayIndex], line);
+                if (!line.equals(shownLines[displayIndex])) {
+                    pageBytes += line.getBytes(StandardCharsets.UTF_8).length;
+                    shownLines[displayIndex] = line;
                 }
-                
-                // Now handle the sentence - split by words if needed
-                if (sentence.trim().length() > maxCharsPerLine) {
-                    String[] words = sentence.trim().split("\\s+");
-                    
-                    for (String word : words) {
-                        if (word.isEmpty()) continue;
-                        
-                        String testWordLine = currentLine.length() == 0 ? word : currentLine + " " + word;
-                        
-                        if (testWordLine.length() <= maxCharsPerLine) {
-                            if (currentLine.length() > 0) {
-                                currentLine.append(" ");
-                            }
-                            currentLine.append(word);
-                        } else {
-                            // Word doesn't fit, finalize current line
-                            if (currentLine.length() > 0) {
-                                lines.add(currentLine.toString());
-                                currentLine = new StringBuilder();
-                            }
-                            
-                            // Handle very long words by splitting them
-                            if (word.length() > maxCharsPerLine) {
-                                for (int i = 0; i < word.length(); i += maxCharsPerLine) {
-                                    int endIndex = Math.min(i + maxCharsPerLine, word.length());
-                                    lines.add(word.substring(i, endIndex));
-                                }
-                            } else {
-                                currentLine.append(word);
-                            }
-                        }
-                    }
-                } else {
-                    // Sentence fits within limit, add it to current line
-                    currentLine.append(sentence.trim());
+                if (LINES_LOGGED.sample(Logs.LOGCAT, "CanvasLayout")) {
+                    android.util.Log.d("CanvasLayout", "Displaying line " + (displayIndex + 1) + ": \"" + line + "\" (length: "
+                            + line.length() + ", " + LINES_LOGGED.getEvents() + " lines so far)");
                 }
             }
+            CompletableFuture<Long> ack = pipeline.commit(pageBytes);
+            ack.thenAccept(commitToAck::recordNanos);
+            if (pagesShown == 0) {
+                Tracer tracer = Tracer.get();
+                long committedAt = System.nanoTime();
+                tracer.span(Tracer.Stage.FIRST_COMMIT, stageStart);
+                ack.thenAccept(nanos -> {
+                    tracer.span(Tracer.Stage.ACK, committedAt);
+                    tracer.endTrace(traceId);
+                });
+            }
+            payloadBytes += pageBytes;
+            pagesShown++;
         }
-        
-        // Add the last line if it has content
-        if (currentLine.length() > 0) {
-            lines.add(currentLine.toString());
-            android.util.Log.d("CanvasLayout", "Added final line: " + currentLine.toString());
+
+        /**
+         * Wait while the wearer reads the page just shown.
+         *
+         * @see ReadingPacer#awaitReader
+         */
+        void awaitReader(GlassesExecutor.CancellationToken token, Page page) throws InterruptedException {
+            pacer.awaitReader(token, page);
         }
-        
-        // Filter out any empty lines that might have been created
-        java.util.List<String> filteredLines = new java.util.ArrayList<>();
-        for (String line : lines) {
-            if (line != null && !line.trim().isEmpty()) {
-                filteredLines.add(line.trim());
+
+        /**
+         * Remove what the session drew and wait for the glasses to catch up.
+         */
+        void close() {
+            // Clear a pending interrupt for the duration of the cleanup, so it is still sent
+            boolean interrupted = Thread.interrupted();
+            device.removeEventListener(pacer);
+            if (renderer != null) {
+                canvas.clearBackground();
+            }
+            for (int id : textIds) {
+                canvas.removeText(id);
+            }
+            try {
+                pipeline.commit();
+                pipeline.drain();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            canvas.logSessionStats("Chapter display");
+            android.util.Log.d("CanvasLayout", "Reading pace at end of session: " + pacer.getWordsPerMinute() + " wpm");
+            if (pagesShown > 0) {
+                android.util.Log.d("CanvasLayout", mode + " pages of " + layout + ": " + pagesShown
+                        + " pages, ~" + payloadBytes / pagesShown + " payload bytes per page, commit to ack "
+                        + commitToAck.summary());
+            }
+            if (traceId != 0) {
+                Tracer.get().dump(traceId);
+                Tracer.get().logSummary();
             }
         }
-        
-        android.util.Log.d("CanvasLayout", "Text splitting complete. Created " + filteredLines.size() + " non-empty lines (filtered from " + lines.size() + " total lines)");
-        
-        return filteredLines.toArray(new String[0]);
     }
 }
@@ -6,8 +6,6 @@ import android.os.PowerManager;
 import android.view.WindowManager;
 import android.webkit.WebView;
 import androidx.appcompat.app.AppCompatActivity;
-import java.io.IOException;
-import java.io.InputStream;
 
 import android.view.Menu;
 import android.view.MenuItem;
@@ -38,12 +36,15 @@ public class ChapterDetailActivity extends AppCompatActivity {
         String chapterTitle = getIntent().getStringExtra("chapter_title");
         WebView webView = findViewById(R.id.webViewChapterDetail);
 
-        String xhtmlContent = loadChapterXHTML(chapterFilePath);
-        if (xhtmlContent != null) {
-            webView.loadDataWithBaseURL(null, xhtmlContent, "application/xhtml+xml", "UTF-8", null);
-        } else {
-            webView.loadData("<html><body><h2>Chapter not found</h2></body></html>", "text/html", "UTF-8");
-        }
+        // The index opens in the background; on a cold start the page loads once it is ready
+        BookIndex.load(this).observe(this, bookIndex -> {
+            if (chapterFilePath != null && bookIndex.indexOf(chapterFilePath) != -1) {
+                // Let the WebView stream the asset itself rather than holding the whole chapter in a String
+                webView.loadUrl("file:///android_asset/" + BookIndex.BOOK_ASSET_DIR + "/" + BookIndex.stripFragment(chapterFilePath));
+            } else {
+                webView.loadData("<html><body><h2>Chapter not found</h2></body></html>", "text/html", "UTF-8");
+            }
+        });
     }
 
     @Override
@@ -55,99 +56,30 @@ public class ChapterDetailActivity extends AppCompatActivity {
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         if (item.getItemId() == R.id.action_send_content) {
-            sendChapterContentToGlasses();
+            sendChapterContentToGlasses(false);
+            return true;
+        } else if (item.getItemId() == R.id.action_send_teleprompter) {
+            sendChapterContentToGlasses(true);
             return true;
         }
         return super.onOptionsItemSelected(item);
     }
 
-    private void sendChapterContentToGlasses() {
+    private void sendChapterContentToGlasses(boolean asTeleprompter) {
         String chapterFilePath = getIntent().getStringExtra("chapter_file_path");
-        String xhtmlContent = loadChapterXHTML(chapterFilePath);
-        if (xhtmlContent == null) return;
+        if (chapterFilePath == null) return;
 
-        // Extract text inside <p> tags only
-        java.util.regex.Pattern pTag = java.util.regex.Pattern.compile("<p[^>]*>(.*?)</p>", java.util.regex.Pattern.DOTALL);
-        java.util.regex.Matcher matcher = pTag.matcher(xhtmlContent);
-        StringBuilder allText = new StringBuilder();
-        
-        // Collect all paragraph text in order
-        while (matcher.find()) {
-            String text = matcher.group(1).replaceAll("<[^>]+>", "").trim(); // Remove any nested tags
-            if (!text.isEmpty()) {
-                allText.append(text);
-                if (!text.endsWith(".") && !text.endsWith("!") && !text.endsWith("?")) {
-                    allText.append(" ");
-                } else {
-                    allText.append(" ");
-                }
-            }
+        if (!asTeleprompter) {
+            // Paged sends end their trace when the first page is acknowledged
+            Tracer.get().beginTrace("send chapter " + chapterFilePath);
         }
-        
-        // Split text into properly sized chunks for display, ensuring sentences stay intact
-        String fullText = allText.toString().trim();
-        java.util.List<String> partsList = new java.util.ArrayList<>();
-        
-        if (!fullText.isEmpty()) {
-            // Split by sentences, keeping punctuation
-            String[] sentences = fullText.split("(?<=[.!?])\\s+");
-            StringBuilder currentChunk = new StringBuilder();
-            int maxChunkLength = 400; // Adjust based on display capacity
-            
-            for (String sentence : sentences) {
-                sentence = sentence.trim();
-                if (sentence.isEmpty()) continue;
-                
-                // If adding this sentence would exceed max length, start a new chunk
-                if (currentChunk.length() > 0 && 
-                    (currentChunk.length() + sentence.length() + 1) > maxChunkLength) {
-                    
-                    // Only create a new chunk if the current chunk has substantial content (at least 50 chars)
-                    // This prevents tiny fragments from becoming separate chunks
-                    if (currentChunk.length() >= 50) {
-                        partsList.add(currentChunk.toString().trim());
-                        currentChunk = new StringBuilder();
-                    }
-                    // If current chunk is too small, keep adding to it even if it exceeds maxChunkLength
-                }
-                
-                if (currentChunk.length() > 0) {
-                    currentChunk.append(" ");
-                }
-                currentChunk.append(sentence);
-            }
-            
-            // Add the last chunk if it has content
-            if (currentChunk.length() > 0) {
-                partsList.add(currentChunk.toString().trim());
-            }
-        }
-        
-        String[] parts = partsList.toArray(new String[0]);
+        // The chapter is looked up and read off the main thread, as part of the send
         ChapterDetailViewModel model = new ViewModelProvider(this).get(ChapterDetailViewModel.class);
-        model.sendContentToGlasses(parts);
+        model.sendContentToGlasses(chapterFilePath, asTeleprompter);
     }
 
     // ...existing code...
 
-    private String loadChapterXHTML(String chapterFilePath) {
-        // Strip fragment if present
-        String cleanPath = chapterFilePath;
-        int hashIndex = chapterFilePath.indexOf('#');
-        if (hashIndex != -1) {
-            cleanPath = chapterFilePath.substring(0, hashIndex);
-        }
-        try (InputStream is = getAssets().open("alice-xhtml/" + cleanPath)) {
-            int size = is.available();
-            byte[] buffer = new byte[size];
-            is.read(buffer);
-            return new String(buffer, "UTF-8");
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
-        }
-    }
-    
     @Override
     protected void onResume() {
         super.onResume();
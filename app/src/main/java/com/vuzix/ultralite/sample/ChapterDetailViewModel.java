@@ -8,14 +8,25 @@ import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import com.vuzix.ultralite.UltraliteSDK;
-import com.vuzix.ultralite.Layout;
 import com.vuzix.ultralite.utils.scroll.LiveText;
 
+import java.io.IOException;
+
 public class ChapterDetailViewModel extends AndroidViewModel {
+    // The chapter's lines are wrapped for the glasses font, so one line fits one slice
+    private static final int TELEPROMPTER_SLICE_HEIGHT = 48;
+    private static final int TELEPROMPTER_LINES_SHOWING = 4;
+    private static final int TELEPROMPTER_LOOKAHEAD = 3;
+    private static final long TELEPROMPTER_LINE_INTERVAL_MS = 2500;
+    // How long a cancelled send may take to clean up before control is released regardless
+    private static final long CLEANUP_TIMEOUT_MS = 1000;
     private final UltraliteSDK ultralite;
-    private boolean haveControlOfGlasses;
-    private String[] contentParts;
+    private volatile boolean haveControlOfGlasses;
+    private String chapterFilePath;
+    private boolean asTeleprompter;
     private final MutableLiveData<Boolean> sending = new MutableLiveData<>();
+    // Cancels the send in progress; also cancelled when any other content is sent to the glasses
+    private volatile GlassesExecutor.CancellationToken sendToken;
 
     public ChapterDetailViewModel(@NonNull Application application) {
         super(application);
@@ -25,69 +36,102 @@ public class ChapterDetailViewModel extends AndroidViewModel {
 
     @Override
     protected void onCleared() {
+        // Stop the send, and keep control until it has removed its fields from the glasses. A
+        // send stuck waiting on the glasses gets a short while before control goes anyway.
+        GlassesExecutor.CancellationToken token = sendToken;
+        if (token == null) {
+            releaseControl();
+            return;
+        }
+        token.cancel();
+        token.whenFinished(CLEANUP_TIMEOUT_MS, this::releaseControl);
+    }
+
+    private void releaseControl() {
         ultralite.releaseControl();
         new Handler(Looper.getMainLooper()).postDelayed(() ->
                 ultralite.getControlledByMe().removeObserver(controlledObserver), 500);
     }
 
-    public void sendContentToGlasses(String[] parts) {
-        contentParts = parts;
+    /**
+     * @param chapterFilePath the chapter's path in the TOC
+     * @param asTeleprompter  scroll the chapter line by line in the SCROLL layout instead of
+     *                        showing it a page at a time
+     */
+    public void sendContentToGlasses(String chapterFilePath, boolean asTeleprompter) {
+        this.chapterFilePath = chapterFilePath;
+        this.asTeleprompter = asTeleprompter;
         if (haveControlOfGlasses) {
-            startSendThread();
+            startSend();
         } else {
             ultralite.requestControl();
         }
     }
 
-    private void startSendThread() {
-        // Force stop any running demo and clear demo content
-        MainActivity.DemoActivityViewModel.stopDemoIfRunning(ultralite);
-        
-        // Ensure proper clearing and content display on main thread
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-        mainHandler.post(() -> {
-            if (haveControlOfGlasses && contentParts != null) {
-                // Clear any existing content
-                ultralite.getCanvas().clearBackground();
-                
-                // Remove text elements that might exist
-                for (int textId = 0; textId < 20; textId++) {
-                    ultralite.getCanvas().removeText(textId);
-                }
-                
-                // Remove images that might exist
-                for (int imageId = 0; imageId < 20; imageId++) {
-                    ultralite.getCanvas().removeImage(imageId);
-                }
-                
-                // Remove animations that might exist
-                for (int animId = 0; animId < 20; animId++) {
-                    ultralite.getCanvas().removeAnimation(animId);
+    private void startSend() {
+        String chapterFilePath = this.chapterFilePath;
+        boolean asTeleprompter = this.asTeleprompter;
+        if (chapterFilePath == null) {
+            return;
+        }
+        // The send is a content job on the shared glasses executor. Submitting it cancels the demo
+        // or an earlier send, and it can never interleave with them on the canvas.
+        sendToken = GlassesExecutor.get().submitContent(GlassesExecutor.Priority.CHAPTER_PAGE, "chapter detail", token -> {
+            if (!haveControlOfGlasses) {
+                return;
+            }
+            BookIndex.ChapterContent content = readChapter(chapterFilePath);
+            if (content == null) {
+                return;
+            }
+            sending.postValue(true);
+            try {
+                // Remove only the objects that are actually live, plus the background, in one
+                // commit. No fixed delays follow: showChapterLines waits for the ack of its
+                // setLayout before drawing the first page.
+                GlassesCanvas.get(ultralite).reset();
+                if (asTeleprompter) {
+                    new WindowedTeleprompter(GlassesDevice.of(ultralite), TELEPROMPTER_SLICE_HEIGHT, (int) CanvasLayout.GLASSES_FONT_SIZE,
+                            TELEPROMPTER_LINES_SHOWING, TELEPROMPTER_LOOKAHEAD)
+                            .run(WindowedTeleprompter.chapterLines(content.text, content.lineBounds),
+                                    TELEPROMPTER_LINE_INTERVAL_MS, token);
+                } else {
+                    CanvasLayout.showChapterLines(getApplication().getApplicationContext(), ultralite, content.text, content.lineBounds, token);
                 }
-                
-                ultralite.getCanvas().commit();
-                
-                // Wait a moment for clearing to complete
-                new Handler().postDelayed(() -> {
-                    new Thread(() -> {
-                        sending.postValue(true);
-                        try {
-                            // Set layout to CANVAS
-                            ultralite.setLayout(Layout.CANVAS, 0, true);
-                            Thread.sleep(200);
-                            
-                            CanvasLayout.showChapterContent(getApplication().getApplicationContext(), ultralite, contentParts);
-                        } catch (InterruptedException ignored) {
-                            // Handle interruption gracefully
-                        } finally {
-                            sending.postValue(false);
-                        }
-                    }).start();
-                }, 500);
+            } catch (InterruptedException e) {
+                android.util.Log.d("ChapterDetailViewModel", "Teleprompter interrupted");
+            } finally {
+                sending.postValue(false);
             }
         });
     }
 
+    /**
+     * Look the chapter up and read it from the book index, which already holds its wrapped display
+     * lines. This can wait for the index to open, so it runs on the glasses executor, not the UI.
+     *
+     * @return the chapter, or null if it is not in the index or cannot be read
+     */
+    private BookIndex.ChapterContent readChapter(String chapterFilePath) {
+        Tracer tracer = Tracer.get();
+        long lookupStart = System.nanoTime();
+        BookIndex bookIndex = BookIndex.get(getApplication());
+        int chapterIndex = bookIndex.indexOf(chapterFilePath);
+        tracer.span(Tracer.Stage.TOC_LOOKUP, lookupStart);
+        if (chapterIndex == -1) {
+            return null;
+        }
+        long readStart = System.nanoTime();
+        try {
+            BookIndex.ChapterContent content = bookIndex.readChapter(chapterIndex);
+            tracer.span(Tracer.Stage.INDEX_READ, readStart);
+            return content;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     private void pause(long ms) {
         try {
             Thread.sleep(ms);
@@ -99,8 +143,8 @@ public class ChapterDetailViewModel extends AndroidViewModel {
 
     private final Observer<Boolean> controlledObserver = controlled -> {
         haveControlOfGlasses = controlled;
-        if (controlled && contentParts != null) {
-            startSendThread();
+        if (controlled && chapterFilePath != null) {
+            startSend();
         }
     };
 }
\ No newline at end of file
@@ -46,8 +46,17 @@ public class ChaptersActivity extends AppCompatActivity {
         // Initialize ViewModel
         chaptersViewModel = new ViewModelProvider(this).get(ChaptersViewModel.class);
 
-        // Parse toc.xhtml to get chapter titles and file paths
-        chapterItems = TocParser.parseToc(this);
+        // Chapter titles and file paths come from the persistent book index, which only parses
+        // toc.xhtml the first time the book is opened. It opens in the background, and the list
+        // fills in when it is ready.
+        BookIndex.load(this).observe(this, bookIndex -> showChapters(listView, bookIndex.getChapters()));
+
+        // Observe ViewModel states
+        observeViewModelStates();
+    }
+
+    private void showChapters(ListView listView, List<ChapterItem> chapters) {
+        chapterItems = chapters;
         android.util.Log.d(TAG, "Parsed chapters: " + (chapterItems != null ? chapterItems.size() : 0));
         if (chapterItems != null && !chapterItems.isEmpty()) {
             ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_list_item_1);
@@ -72,9 +81,6 @@ public class ChaptersActivity extends AppCompatActivity {
         } else {
             android.util.Log.e(TAG, "No chapters found or failed to parse toc.xhtml");
         }
-        
-        // Observe ViewModel states
-        observeViewModelStates();
     }
     
     @Override
@@ -92,6 +98,24 @@ public class ChaptersActivity extends AppCompatActivity {
         } else if (item.getItemId() == R.id.action_stop_sending) {
             stopSending();
             return true;
+        } else if (item.getItemId() == R.id.action_bitmap_pages || item.getItemId() == R.id.action_mixed_pages) {
+            // Takes effect from the next send; the two modes exclude each other
+            boolean checked = !item.isChecked();
+            menu.findItem(R.id.action_bitmap_pages).setChecked(false);
+            menu.findItem(R.id.action_mixed_pages).setChecked(false);
+            item.setChecked(checked);
+            CanvasLayout.PageMode mode = CanvasLayout.PageMode.TEXT_FIELDS;
+            if (checked) {
+                mode = item.getItemId() == R.id.action_bitmap_pages
+                        ? CanvasLayout.PageMode.BITMAP : CanvasLayout.PageMode.MIXED;
+            }
+            chaptersViewModel.setPageMode(mode);
+            return true;
+        } else if (item.getItemId() == R.id.action_simulate_glasses) {
+            // Sends go to an in-process device instead, for measuring without glasses
+            item.setChecked(!item.isChecked());
+            chaptersViewModel.setSimulateGlasses(item.isChecked());
+            return true;
         }
         return super.onOptionsItemSelected(item);
     }
@@ -4,25 +4,44 @@ import android.app.Application;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
 import com.vuzix.ultralite.UltraliteSDK;
-import com.vuzix.ultralite.Layout;
-import java.io.IOException;
-import java.io.InputStream;
+import com.vuzix.ultralite.sample.text.Page;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class ChaptersViewModel extends AndroidViewModel {
+    /**
+     * Hands a send its chapters in order.
+     */
+    interface ChapterSource {
+        /**
+         * @return the next chapter, or null once there are no more
+         */
+        PagePrefetcher.Chapter take() throws InterruptedException;
+    }
+
+    private static final String TAG = "ChaptersViewModel";
+    // How long a cancelled send may take to clean up before control is released regardless
+    private static final long CLEANUP_TIMEOUT_MS = 1000;
     private final UltraliteSDK ultralite;
-    private boolean haveControlOfGlasses;
+    private volatile boolean haveControlOfGlasses;
     private List<ChapterItem> chapterItems;
     private int currentChapterIndex = 0;
     private final MutableLiveData<Boolean> sending = new MutableLiveData<>();
     private final MutableLiveData<String> currentChapterTitle = new MutableLiveData<>();
     private final MutableLiveData<Integer> currentChapterProgress = new MutableLiveData<>();
-    private boolean shouldStop = false;
+    // Cancels the send in progress; also cancelled when any other content is sent to the glasses
+    private volatile GlassesExecutor.CancellationToken sendToken;
+    private volatile int wordsPerMinute = ReadingPacer.DEFAULT_WORDS_PER_MINUTE;
+    private volatile CanvasLayout.PageMode pageMode = CanvasLayout.PageMode.TEXT_FIELDS;
+    private volatile boolean simulateGlasses;
+    // Shared by every send to simulated glasses, so its link and scheduler threads are made once
+    private static SimulatedGlassesDevice simulatedGlasses;
 
     public ChaptersViewModel(@NonNull Application application) {
         super(application);
@@ -32,8 +51,19 @@ public class ChaptersViewModel extends AndroidViewModel {
 
     @Override
     protected void onCleared() {
+        // Stop the send, and keep control until it has removed its fields from the glasses. A
+        // send stuck waiting on the glasses gets a short while before control goes anyway.
+        GlassesExecutor.CancellationToken token = sendToken;
+        if (token == null) {
+            releaseControl();
+            return;
+        }
+        token.cancel();
+        token.whenFinished(CLEANUP_TIMEOUT_MS, this::releaseControl);
+    }
+
+    private void releaseControl() {
         ultralite.releaseControl();
-        shouldStop = true;
         new Handler(Looper.getMainLooper()).postDelayed(() ->
                 ultralite.getControlledByMe().removeObserver(controlledObserver), 500);
     }
@@ -53,9 +83,9 @@ public class ChaptersViewModel extends AndroidViewModel {
     public void sendAllChaptersToGlasses(List<ChapterItem> chapters) {
         this.chapterItems = chapters;
         this.currentChapterIndex = 0;
-        this.shouldStop = false;
-        if (haveControlOfGlasses) {
-            startSendAllChaptersThread();
+        Tracer.get().beginTrace("send all chapters");
+        if (haveControlOfGlasses || simulateGlasses) {
+            startSendAllChapters();
         } else {
             ultralite.requestControl();
         }
@@ -64,193 +94,157 @@ public class ChaptersViewModel extends AndroidViewModel {
     public void sendChaptersFromIndexToEnd(List<ChapterItem> chapters, int startIndex) {
         this.chapterItems = chapters;
         this.currentChapterIndex = startIndex;
-        this.shouldStop = false;
-        if (haveControlOfGlasses) {
-            startSendChaptersFromIndexThread();
+        Tracer.get().beginTrace("send from chapter " + startIndex);
+        if (haveControlOfGlasses || simulateGlasses) {
+            startSendChaptersFromIndex();
         } else {
             ultralite.requestControl();
         }
     }
 
+    /**
+     * Set the starting reading pace for the next send. Taps on the glasses adjust it from there.
+     */
+    public void setWordsPerMinute(int wordsPerMinute) {
+        this.wordsPerMinute = wordsPerMinute;
+    }
+
+    /**
+     * Choose how pages are drawn for the next send.
+     */
+    public void setPageMode(CanvasLayout.PageMode pageMode) {
+        this.pageMode = pageMode;
+    }
+
+    /**
+     * Send to a {@link SimulatedGlassesDevice} instead of the glasses, from the next send.
+     */
+    public void setSimulateGlasses(boolean simulateGlasses) {
+        this.simulateGlasses = simulateGlasses;
+    }
+
     public void stopSending() {
-        shouldStop = true;
+        cancelSend();
         sending.postValue(false);
     }
 
-    private void startSendAllChaptersThread() {
+    private void cancelSend() {
+        GlassesExecutor.CancellationToken token = sendToken;
+        if (token != null) {
+            token.cancel();
+        }
+    }
+
+    private void startSendAllChapters() {
         this.currentChapterIndex = 0;
-        startSendChaptersFromIndexThread();
+        startSendChaptersFromIndex();
     }
 
-    private void startSendChaptersFromIndexThread() {
-        // Force stop any running demo and clear demo content
-        MainActivity.DemoActivityViewModel.stopDemoIfRunning(ultralite);
-        
-        // Ensure proper clearing and content display on main thread
-        Handler mainHandler = new Handler(Looper.getMainLooper());
-        mainHandler.post(() -> {
-            if (haveControlOfGlasses && chapterItems != null && !chapterItems.isEmpty()) {
-                clearCanvas();
-                
-                // Wait a moment for clearing to complete
-                new Handler().postDelayed(() -> {
-                    new Thread(() -> {
-                        sending.postValue(true);
-                        try {
-                            // Set layout to CANVAS
-                            ultralite.setLayout(Layout.CANVAS, 0, true);
-                            Thread.sleep(200);
-                            
-                            sendChaptersSequentially();
-                        } catch (InterruptedException ignored) {
-                            // Handle interruption gracefully
-                        } finally {
-                            sending.postValue(false);
-                            currentChapterTitle.postValue("");
-                            currentChapterProgress.postValue(0);
-                        }
-                    }).start();
-                }, 500);
+    private void startSendChaptersFromIndex() {
+        if (chapterItems == null || chapterItems.isEmpty()) {
+            return;
+        }
+        // The send is a content job on the shared glasses executor. Submitting it cancels the demo
+        // or an earlier send, and it can never interleave with them on the canvas.
+        boolean simulated = simulateGlasses;
+        GlassesDevice device = simulated ? simulatedGlasses() : GlassesDevice.of(ultralite);
+        sendToken = GlassesExecutor.get().submitContent(GlassesExecutor.Priority.CHAPTER_PAGE, "chapters", token -> {
+            if (!haveControlOfGlasses && !simulated) {
+                return;
+            }
+            sending.postValue(true);
+            try {
+                sendChaptersSequentially(device, token);
+            } finally {
+                if (simulated) {
+                    Log.d(TAG, "Simulated glasses: " + simulatedGlasses().summary());
+                }
+                sending.postValue(false);
+                currentChapterTitle.postValue("");
+                currentChapterProgress.postValue(0);
             }
         });
     }
 
-    private void clearCanvas() {
-        // Clear any existing content
-        ultralite.getCanvas().clearBackground();
-        
-        // Remove text elements that might exist
-        for (int textId = 0; textId < 20; textId++) {
-            ultralite.getCanvas().removeText(textId);
-        }
-        
-        // Remove images that might exist
-        for (int imageId = 0; imageId < 20; imageId++) {
-            ultralite.getCanvas().removeImage(imageId);
+    private static synchronized SimulatedGlassesDevice simulatedGlasses() {
+        if (simulatedGlasses == null) {
+            simulatedGlasses = new SimulatedGlassesDevice();
         }
-        
-        // Remove animations that might exist
-        for (int animId = 0; animId < 20; animId++) {
-            ultralite.getCanvas().removeAnimation(animId);
-        }
-        
-        ultralite.getCanvas().commit();
+        return simulatedGlasses;
     }
 
-    private void sendChaptersSequentially() {
-        for (int index = currentChapterIndex; index < chapterItems.size() && !shouldStop; index++) {
-            currentChapterIndex = index;
-            ChapterItem chapter = chapterItems.get(currentChapterIndex);
-            
-            // Update current chapter info on main thread
-            new Handler(Looper.getMainLooper()).post(() -> {
-                currentChapterTitle.postValue(chapter.title);
-                currentChapterProgress.postValue(currentChapterIndex + 1);
+    private void sendChaptersSequentially(GlassesDevice device, GlassesExecutor.CancellationToken token) {
+        // Upcoming chapters are read and paginated in the background while earlier ones are shown,
+        // so moving to the next chapter costs no text work here
+        long lookupStart = System.nanoTime();
+        BookIndex bookIndex = BookIndex.get(getApplication());
+        Tracer.get().span(Tracer.Stage.TOC_LOOKUP, lookupStart);
+        // Pages are cut to what the session's layout holds, so both use the same mode
+        CanvasLayout.PageMode mode = pageMode;
+        PagePrefetcher prefetcher = new PagePrefetcher(bookIndex,
+                currentChapterIndex, chapterItems.size(), PageLayout.forMode(mode).getLinesPerPage());
+        prefetcher.start();
+        try {
+            showChapters(device, prefetcher::take, mode, wordsPerMinute, token, index -> {
+                currentChapterIndex = index;
+                ChapterItem chapterItem = chapterItems.get(index);
+
+                // Update current chapter info on main thread
+                int progress = index + 1;
+                new Handler(Looper.getMainLooper()).post(() -> {
+                    currentChapterTitle.postValue(chapterItem.title);
+                    currentChapterProgress.postValue(progress);
+                });
             });
-            
-            // Load and send chapter content
-            String[] contentParts = loadChapterContentParts(chapter.filePath);
-            if (contentParts != null && contentParts.length > 0) {
-                CanvasLayout.showChapterContent(getApplication().getApplicationContext(), ultralite, contentParts);
-            }
-            
-            // Small pause between chapters if not stopped
-            if (!shouldStop && currentChapterIndex < chapterItems.size() - 1) {
-                try {
-                    Thread.sleep(2000); // 2 second pause between chapters
-                } catch (InterruptedException ignored) {
-                    break;
-                }
+        } catch (InterruptedException e) {
+            Log.d(TAG, "Sending chapters interrupted");
+            Thread.currentThread().interrupt();
+        } finally {
+            prefetcher.close();
+            if (token.isCancelled()) {
+                Log.d(TAG, "Stopped and cleaned up " + token.millisSinceCancel() + " ms after cancel");
             }
         }
     }
 
-    private String[] loadChapterContentParts(String chapterFilePath) {
-        String xhtmlContent = loadChapterXHTML(chapterFilePath);
-        if (xhtmlContent == null) return null;
-
-        // Extract text inside <p> tags only (same logic as ChapterDetailActivity)
-        java.util.regex.Pattern pTag = java.util.regex.Pattern.compile("<p[^>]*>(.*?)</p>", java.util.regex.Pattern.DOTALL);
-        java.util.regex.Matcher matcher = pTag.matcher(xhtmlContent);
-        StringBuilder allText = new StringBuilder();
-        
-        // Collect all paragraph text in order
-        while (matcher.find()) {
-            String text = matcher.group(1).replaceAll("<[^>]+>", "").trim(); // Remove any nested tags
-            if (!text.isEmpty()) {
-                allText.append(text);
-                if (!text.endsWith(".") && !text.endsWith("!") && !text.endsWith("?")) {
-                    allText.append(" ");
-                } else {
-                    allText.append(" ");
-                }
-            }
-        }
-        
-        // Split text into properly sized chunks for display, ensuring sentences stay intact
-        String fullText = allText.toString().trim();
-        java.util.List<String> partsList = new java.util.ArrayList<>();
-        
-        if (!fullText.isEmpty()) {
-            // Split by sentences, keeping punctuation
-            String[] sentences = fullText.split("(?<=[.!?])\\s+");
-            StringBuilder currentChunk = new StringBuilder();
-            int maxChunkLength = 400; // Adjust based on display capacity
-            
-            for (String sentence : sentences) {
-                sentence = sentence.trim();
-                if (sentence.isEmpty()) continue;
-                
-                // If adding this sentence would exceed max length, start a new chunk
-                if (currentChunk.length() > 0 && 
-                    (currentChunk.length() + sentence.length() + 1) > maxChunkLength) {
-                    
-                    // Only create a new chunk if the current chunk has substantial content (at least 50 chars)
-                    // This prevents tiny fragments from becoming separate chunks
-                    if (currentChunk.length() >= 50) {
-                        partsList.add(currentChunk.toString().trim());
-                        currentChunk = new StringBuilder();
+    /**
+     * Clear the glasses, then show the pages of every chapter from {@code chapters} in one page
+     * session, each until the wearer has read it, and remove them again. Stops early once
+     * {@code token} is cancelled.
+     *
+     * @param onChapter called with the index of each chapter as it comes up
+     */
+    static void showChapters(GlassesDevice device, ChapterSource chapters, CanvasLayout.PageMode mode, int wordsPerMinute,
+                             GlassesExecutor.CancellationToken token, IntConsumer onChapter) throws InterruptedException {
+        // No fixed delays: the glasses process commands in order, and each chapter
+        // waits for the ack of its setLayout before drawing the first page
+        // Remove only the objects that are actually live, plus the background, in one commit
+        GlassesCanvas.get(device).reset();
+        CanvasLayout.PageSession session = CanvasLayout.PageSession.open(device, wordsPerMinute, mode);
+        try {
+            PagePrefetcher.Chapter chapter;
+            while (!token.isCancelled() && (chapter = chapters.take()) != null) {
+                onChapter.accept(chapter.index);
+                for (Page page : chapter.pages) {
+                    if (token.isCancelled()) {
+                        break;
                     }
-                    // If current chunk is too small, keep adding to it even if it exceeds maxChunkLength
-                }
-                
-                if (currentChunk.length() > 0) {
-                    currentChunk.append(" ");
+                    session.showPage(page);
+                    // Stay on the page as long as it takes to read, or until the wearer taps
+                    session.awaitReader(token, page);
                 }
-                currentChunk.append(sentence);
             }
-            
-            // Add the last chunk if it has content
-            if (currentChunk.length() > 0) {
-                partsList.add(currentChunk.toString().trim());
-            }
-        }
-        
-        return partsList.toArray(new String[0]);
-    }
-
-    private String loadChapterXHTML(String chapterFilePath) {
-        // Strip fragment if present
-        String cleanPath = chapterFilePath;
-        int hashIndex = chapterFilePath.indexOf('#');
-        if (hashIndex != -1) {
-            cleanPath = chapterFilePath.substring(0, hashIndex);
-        }
-        try (InputStream is = getApplication().getAssets().open("alice-xhtml/" + cleanPath)) {
-            int size = is.available();
-            byte[] buffer = new byte[size];
-            is.read(buffer);
-            return new String(buffer, "UTF-8");
-        } catch (IOException e) {
-            e.printStackTrace();
-            return null;
+        } finally {
+            // At most the commits already in flight reach the glasses after a cancel; the page that
+            // was being staged is dropped and only the removal of the fields is sent
+            session.close();
         }
     }
 
     private final Observer<Boolean> controlledObserver = controlled -> {
         haveControlOfGlasses = controlled;
         if (controlled && chapterItems != null && !chapterItems.isEmpty()) {
-            startSendChaptersFromIndexThread();
+            startSendChaptersFromIndex();
         }
     };
 }
@@ -0,0 +1,95 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Paces canvas commits by what the glasses have actually processed instead of by fixed sleeps.
+ *
+ * Commits go through the app's {@link LinkScheduler}, which acks them in groups and keeps the link
+ * from falling behind. Up to {@code maxInFlight} commits may be waiting for their ack at
+ * once; the next commit blocks until the oldest is confirmed. Each commit takes what is staged on
+ * the canvas when it is made, so later changes never slip into it. A commit that is still queued in
+ * the scheduler when the next one arrives is merged with it, since the retained-mode canvas sends
+ * the latest state of every element either way. {@link #sync()} waits for one round trip, which is
+ * what a step such as {@code setLayout} needs before content is drawn on it.
+ *
+ * A commit whose ack times out is logged and counted as done, so a dropped link cannot hang the
+ * sender.
+ *
+ * Must not be used on the main thread, since acks may be delivered there. Not thread safe; each
+ * sender uses its own pipeline.
+ */
+class CommitPipeline {
+    private static final String TAG = "CommitPipeline";
+
+    private final GlassesCanvas canvas;
+    private final LinkScheduler scheduler;
+    private final int maxInFlight;
+    private final ArrayDeque<CompletableFuture<Long>> inFlight = new ArrayDeque<>();
+    // The last commit, which later ones are merged into until the scheduler sends it
+    private GlassesCanvas.StagedCommit lastCommit;
+    private int lastCommitBytes;
+
+    CommitPipeline(GlassesDevice device, int maxInFlight) {
+        this.canvas = GlassesCanvas.get(device);
+        this.scheduler = LinkScheduler.get(device);
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Commit the staged canvas changes once fewer than {@code maxInFlight} earlier commits are
+     * unacknowledged.
+     *
+     * @param bytes roughly how much the staged changes send over the link
+     * @return the ack of this commit, completing with the commit-to-ack time in nanoseconds
+     */
+    CompletableFuture<Long> commit(int bytes) throws InterruptedException {
+        while (inFlight.size() >= maxInFlight) {
+            awaitOldest();
+        }
+        GlassesCanvas.StagedCommit staged = canvas.stage(lastCommit);
+        if (staged == lastCommit) {
+            bytes += lastCommitBytes;
+        }
+        lastCommit = staged;
+        lastCommitBytes = bytes;
+        CompletableFuture<Long> ack = scheduler.submit(canvas, bytes, () -> canvas.commit(staged));
+        inFlight.add(ack);
+        return ack;
+    }
+
+    CompletableFuture<Long> commit() throws InterruptedException {
+        return commit(0);
+    }
+
+    /**
+     * Wait until everything sent so far, including non-canvas commands such as
+     * {@code setLayout}, has been processed by the glasses.
+     */
+    void sync() throws InterruptedException {
+        inFlight.add(scheduler.requestAck());
+        drain();
+    }
+
+    /**
+     * Wait until every commit made through this pipeline has been acknowledged.
+     */
+    void drain() throws InterruptedException {
+        while (!inFlight.isEmpty()) {
+            awaitOldest();
+        }
+    }
+
+    private void awaitOldest() throws InterruptedException {
+        try {
+            inFlight.peek().get();
+        } catch (ExecutionException e) {
+            Log.w(TAG, e.getCause().getMessage());
+        }
+        inFlight.remove();
+    }
+}
@@ -31,10 +31,13 @@ public class DemoCanvasLayout {
     }
 
     private static void demoTextFields(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop {
+        // All canvas calls go through the app-wide wrapper, which records the objects we create so
+        // they can be cleaned up precisely, and skips updates that would not change anything
+        GlassesCanvas canvas = GlassesCanvas.get(ultralite);
         // Note, the caller already has requested control, and is observing the state of the glasses
         ultralite.setLayout(Layout.CANVAS, 0, true);
 
-        int textId = ultralite.getCanvas().createText("This is a canvas with a text field.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.CENTER, 0, 0, 640, -1, TextWrapMode.WRAP, true);
+        int textId = canvas.createText("This is a canvas with a text field.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.CENTER, 0, 0, 640, -1, TextWrapMode.WRAP, true);
         if (textId == -1) {
             throw new MainActivity.Stop(true);
         }
@@ -45,113 +48,115 @@ public class DemoCanvasLayout {
 
         // Please note this simple example is not requesting an acknowledgement from the glasses
         // which would be critical for synchronizing a phone display to the glasses display.
-        ultralite.getCanvas().commit();
+        canvas.commit();
         demoActivityViewModel.pause(5000);
 
-        ultralite.getCanvas().updateText(textId, "The text can be changed.");
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "The text can be changed.");
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "The text can be moved.");
-        ultralite.getCanvas().moveText(textId, Anchor.TOP_CENTER, 0, 0);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "The text can be moved.");
+        canvas.moveText(textId, Anchor.TOP_CENTER, 0, 0);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "The text can be made invisible...");
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "The text can be made invisible...");
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().setTextVisible(textId, false);
-        ultralite.getCanvas().commit();
+        canvas.setTextVisible(textId, false);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "and visible again...");
-        ultralite.getCanvas().setTextVisible(textId, true);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "and visible again...");
+        canvas.setTextVisible(textId, true);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "If requested, the text can wrap if it grows too large to show on a single line.");
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "If requested, the text can wrap if it grows too large to show on a single line.");
+        canvas.commit();
         demoActivityViewModel.pause(5000);
 
         // When we're done, this frees the object and removes it from the screen
-        ultralite.getCanvas().removeText(textId);
-        ultralite.getCanvas().commit();
+        canvas.removeText(textId);
+        canvas.commit();
     }
 
     private static void demoImages(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop {
-        int textId = ultralite.getCanvas().createText("You can create image objects.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.TOP_CENTER, 0, 0, 640, 100, TextWrapMode.WRAP, true);
+        GlassesCanvas canvas = GlassesCanvas.get(ultralite);
+        int textId = canvas.createText("You can create image objects.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.TOP_CENTER, 0, 0, 640, 100, TextWrapMode.WRAP, true);
         if (textId == -1) {
             throw new MainActivity.Stop(true);
         }
         final boolean useSingleBit = true; // We can use single-bit images to reduce transfer time
         LVGLImage rocket = MainActivity.loadLVGLImage(context, R.drawable.rocket, useSingleBit);
-        int imageId = ultralite.getCanvas().createImage(rocket, Anchor.CENTER);
+        int imageId = canvas.createImage(rocket, Anchor.CENTER);
         if (imageId == -1) {
             throw new MainActivity.Stop(true);
         }
-        ultralite.getCanvas().commit();
+        canvas.commit();
         demoActivityViewModel.pause(5000);
 
-        ultralite.getCanvas().updateText(textId, "You can change the image.");
-        ultralite.getCanvas().updateImage(imageId, MainActivity.loadLVGLImage(context, R.drawable.poop, useSingleBit));
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can change the image.");
+        canvas.updateImage(imageId, MainActivity.loadLVGLImage(context, R.drawable.poop, useSingleBit));
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "You can move the image.");
-        ultralite.getCanvas().moveImage(imageId, 100, 100);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can move the image.");
+        canvas.moveImage(imageId, 100, 100);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "You can hide an image.");
-        ultralite.getCanvas().setImageVisible(imageId, false);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can hide an image.");
+        canvas.setImageVisible(imageId, false);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "You can show an image.");
-        ultralite.getCanvas().setImageVisible(imageId, true);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can show an image.");
+        canvas.setImageVisible(imageId, true);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().removeImage(imageId);
-        ultralite.getCanvas().updateText(textId, "Animations are possible too.");
+        canvas.removeImage(imageId);
+        canvas.updateText(textId, "Animations are possible too.");
 
         LVGLImage happy = MainActivity.loadLVGLImage(context, R.drawable.happy, useSingleBit);
         LVGLImage wink = MainActivity.loadLVGLImage(context, R.drawable.wink, useSingleBit);
-        int animationId = ultralite.getCanvas().createAnimation(new LVGLImage[]{happy, wink}, Anchor.CENTER, 1000);
+        int animationId = canvas.createAnimation(new LVGLImage[]{happy, wink}, Anchor.CENTER, 1000);
         if (animationId == -1) {
             throw new MainActivity.Stop(true);
         }
-        ultralite.getCanvas().commit();
+        canvas.commit();
         demoActivityViewModel.pause(5000);
 
-        ultralite.getCanvas().updateText(textId, "You can move animations.");
-        ultralite.getCanvas().moveAnimation(animationId, 400, 300);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can move animations.");
+        canvas.moveAnimation(animationId, 400, 300);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "You can hide animations.");
-        ultralite.getCanvas().setAnimationVisible(animationId, false);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can hide animations.");
+        canvas.setAnimationVisible(animationId, false);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().updateText(textId, "You can show animations.");
-        ultralite.getCanvas().setAnimationVisible(animationId, true);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can show animations.");
+        canvas.setAnimationVisible(animationId, true);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().removeAnimation(animationId);
-        ultralite.getCanvas().removeText(textId);
-        ultralite.getCanvas().commit();
+        canvas.removeAnimation(animationId);
+        canvas.removeText(textId);
+        canvas.commit();
     }
 
     private static void demoBackgroundDrawing(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop {
-        int textId = ultralite.getCanvas().createText("You can create image objects.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.TOP_CENTER, 0, 0, 640, 100, TextWrapMode.WRAP, true);
+        GlassesCanvas canvas = GlassesCanvas.get(ultralite);
+        int textId = canvas.createText("You can create image objects.", TextAlignment.AUTO, UltraliteColor.WHITE, Anchor.TOP_CENTER, 0, 0, 640, 100, TextWrapMode.WRAP, true);
         final boolean useSingleBit = false;  // The background does not allow single-bit images
         if (textId == -1) {
             throw new MainActivity.Stop(true);
         }
-        ultralite.getCanvas().updateText(textId, "You can repeat an image across the background layer with a single command.");
+        canvas.updateText(textId, "You can repeat an image across the background layer with a single command.");
         Point[] coordinates = {
                 new Point(0, 100),
                 new Point(100, 150),
@@ -160,32 +165,32 @@ public class DemoCanvasLayout {
                 new Point(400, 300),
                 new Point(500, 350)
         };
-        ultralite.getCanvas().drawBackground(MainActivity.loadLVGLImage(context, R.drawable.rocket, useSingleBit), coordinates);
-        ultralite.getCanvas().commit();
+        canvas.drawBackground(MainActivity.loadLVGLImage(context, R.drawable.rocket, useSingleBit), coordinates);
+        canvas.commit();
         demoActivityViewModel.pause(5000);
 
-        ultralite.getCanvas().updateText(textId, "You can clear areas of the background layer.");
-        ultralite.getCanvas().clearBackgroundRect(100, 100, 440, 280, UltraliteColor.WHITE);
-        ultralite.getCanvas().commit();
+        canvas.updateText(textId, "You can clear areas of the background layer.");
+        canvas.clearBackgroundRect(100, 100, 440, 280, UltraliteColor.WHITE);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().clearBackgroundRect(100, 100, 440, 280);
-        ultralite.getCanvas().commit();
+        canvas.clearBackgroundRect(100, 100, 440, 280);
+        canvas.commit();
         demoActivityViewModel.pause();
 
-        ultralite.getCanvas().clearBackground();
-        ultralite.getCanvas().updateText(textId, "Finally, we're going to send a full screen image to the glasses.");
-        ultralite.getCanvas().commit();
+        canvas.clearBackground();
+        canvas.updateText(textId, "Finally, we're going to send a full screen image to the glasses.");
+        canvas.commit();
         demoActivityViewModel.pause(4000);
 
-        ultralite.getCanvas().removeText(textId);
+        canvas.removeText(textId);
 
         LVGLImage bigImage = MainActivity.loadLVGLImage(context, R.drawable.ultralite_large_ori, useSingleBit);
-        ultralite.getCanvas().drawBackground(bigImage, 0, 0);
+        canvas.drawBackground(bigImage, 0, 0);
 
         // This form of commit executes a callback when the glasses have received the commit. Since
         // we just sent a large image, this allows us to synchronize the phone UI to the glasses.
-        ultralite.getCanvas().commit(() -> Log.d("MainActivity", "full screen image commit is done!"));
+        canvas.commit(() -> Log.d("MainActivity", "full screen image commit is done!"));
         demoActivityViewModel.pause(5000);
     }
 }
@@ -56,6 +56,8 @@ public class DemoScrollAutoScroller {
                 try {
                     doneMutex.wait();
                 } catch (Exception e) {
+                    // Don't leave the scroller sending lines after the demo has been stopped
+                    autoScroller.stop();
                     throw new MainActivity.Stop(true);
                 }
             }
@@ -1,54 +1,120 @@
 package com.vuzix.ultralite.sample;
 
 import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
 
 import com.vuzix.ultralite.Layout;
 import com.vuzix.ultralite.UltraliteSDK;
-import com.vuzix.ultralite.utils.scroll.LiveText;
+import com.vuzix.ultralite.sample.captions.CaptionReconciler;
+import com.vuzix.ultralite.sample.captions.CaptionReplay;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 /**
- * This class demonstrates the LiveText feature which is used when we want to send text in realtime
- * to the glasses, but do not know beforehand what the text will be.  The text can be moved and
- * replaced. This creates an effect similar to closed captioning.
+ * This class demonstrates sending text in realtime to the glasses when we do not know beforehand
+ * what the text will be. The text can be moved and replaced. This creates an effect similar to
+ * closed captioning.
+ *
+ * The SDK's LiveText class does this from the complete text so far. Since a caption stream only
+ * ever grows at the end, we use {@link LiveTextFeeder} instead, which takes just the new text and
+ * keeps the cost of each update constant however long the session runs.
  */
 public class DemoScrollLiveText {
+    private static final String CAPTION_TRACE = "captions/sample_trace.txt";
+    // A conservative estimate of what the link carries while other content is idle
+    private static final int LINK_BYTES_PER_SECOND = 50_000;
+
     // Each line of the fullString will be sent for display at at the specified interval. The
     // lines are appended together as time goes on. This simulates data coming back from a speech
     // recognizer in chunks. The display will take those chunks and break it into screen lines
     // and send it appropriately.
-    private static void chunkStringsToEngine(MainActivity.DemoActivityViewModel demoActivityViewModel, LiveText liveTextSender, int intervalMs, String[] fullStrings) throws MainActivity.Stop {
-        String fullTextToSend = "";
+    private static void chunkStringsToEngine(MainActivity.DemoPacer pacer, LiveTextFeeder liveTextSender, int intervalMs, String[] fullStrings) throws MainActivity.Stop {
         for (String eachLine : fullStrings) {
             // We append lines together to simulate the results of a speech engine. It will give us a partial
             // result, then update that over and over again, growing and changing the text as it goes.
-            // As long as we use one LiveText class, it will manage this properly. So, for the demo, we
-            // just send a block of text (with no correlation to screen lines) and let the LiveText break
-            // it into lines and show what it needs to.
-            fullTextToSend += eachLine + " ";
-            liveTextSender.sendText(fullTextToSend);
+            // We only hand over what is new (with no correlation to screen lines) and let the feeder
+            // break it into lines and show what it needs to.
+            liveTextSender.append(eachLine + " ");
             // We pause as we parse the text array to simulate the speech engine giving us data over time
-            demoActivityViewModel.pause(intervalMs);
+            pacer.pause(intervalMs);
         }
     }
 
     public static void runDemo(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop  {
+        runDemo(context, demoActivityViewModel, GlassesDevice.of(ultralite));
+    }
+
+    static void runDemo(Context context, MainActivity.DemoPacer pacer, GlassesDevice glasses) throws MainActivity.Stop  {
         final int sliceHeightInPixels = 48;    // The lines will be 48 pixels high, so each line is 1/10th the screen height. This affects the
                                                // ranges for all other values below since this configuration now has a maximum of 10 lines.
-        final int sliceWidthInPixels = UltraliteSDK.Canvas.WIDTH; // Use the full width
+        final int fontSize = 35;               // Font size within one line (smaller than the slice height)
         final int startingScreenLocation = 1;  // The lines will appear at line 0, the lowest point on the screen.  (Since above we
                                                // configured a total of 10 lines on the screen, this can be (0-9) and we're choosing 1.
         final int numberLinesShowing = 3;      // Number of full lines when the text pauses. A fourth line shows during the transition.
                                                // (Since each line is set to be 48 pixels high above, we can have a max of 10 lines on
                                                // the screen, 1 up from the bottom, we can choose between 1 and 9, and we choose 3).
-        ultralite.setLayout(Layout.SCROLL, 0, true, true, 0);
-        LiveText liveTextSender = new LiveText(ultralite, sliceHeightInPixels, sliceWidthInPixels, startingScreenLocation, numberLinesShowing, null);
-        // Often the LiveText is used with a speech recognition engine that gives us results. We will
+        try {
+            // The layout and the feeder's scroll config go straight to the device, so must not
+            // overtake anything an earlier demo still has queued
+            LinkScheduler.get(glasses).awaitSent();
+        } catch (InterruptedException e) {
+            throw new MainActivity.Stop(false);
+        }
+        glasses.setLayout(Layout.SCROLL, 0, true, true, 0);
+        LiveTextFeeder liveTextSender = new LiveTextFeeder(glasses, sliceHeightInPixels, fontSize, startingScreenLocation, numberLinesShowing);
+        // Often live text comes from a speech recognition engine that gives us results. We will
         // simulate that by sending some arrays.
         String[] text = context.getResources().getStringArray(R.array.live_text_demo_text_1);
-        chunkStringsToEngine(demoActivityViewModel, liveTextSender, 2000, text);
-        demoActivityViewModel.pause(1000);
+        chunkStringsToEngine(pacer, liveTextSender, 2000, text);
+        pacer.pause(1000);
         text = context.getResources().getStringArray(R.array.live_text_demo_text_2);
-        chunkStringsToEngine(demoActivityViewModel, liveTextSender, 2000, text);
-        demoActivityViewModel.pause(1000);
+        chunkStringsToEngine(pacer, liveTextSender, 2000, text);
+        pacer.pause(1000);
+        // A real recognizer rewrites its latest words many times a second. Replay a recorded trace
+        // of one through a reconciler, which only sends what has settled.
+        replayCaptions(context, pacer, liveTextSender, sliceHeightInPixels);
+        try {
+            // Let everything queued reach the glasses before the next demo changes the layout
+            LinkScheduler.get(glasses).drain();
+        } catch (InterruptedException e) {
+            throw new MainActivity.Stop(false);
+        }
+        LinkScheduler.get(glasses).logStats();
+        Log.d(MainActivity.TAG, "Live text sent " + liveTextSender.getSlicesSent() + " slices for "
+                + liveTextSender.getCommittedChars() + " committed characters");
+    }
+
+    private static void replayCaptions(Context context, MainActivity.DemoPacer pacer,
+                                       LiveTextFeeder liveTextSender, int sliceHeightInPixels) throws MainActivity.Stop {
+        List<CaptionReplay.Event> events;
+        try (Reader reader = new InputStreamReader(context.getAssets().open(CAPTION_TRACE), StandardCharsets.UTF_8)) {
+            events = CaptionReplay.parse(reader);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        // Each update re-sends the bottom slice: the full width at 2 bits per pixel
+        int sliceBytes = UltraliteSDK.Canvas.WIDTH * sliceHeightInPixels * 2 / 8;
+        // The feeder is the reconciler's sink, so edits never reach back past its committed lines
+        CaptionReconciler reconciler = new CaptionReconciler(liveTextSender,
+                CaptionReconciler.DEFAULT_DEBOUNCE_MS, CaptionReconciler.minIntervalMs(sliceBytes, LINK_BYTES_PER_SECOND));
+        long start = SystemClock.uptimeMillis();
+        int next = 0;
+        while (next < events.size() || reconciler.hasPending()) {
+            long now = SystemClock.uptimeMillis() - start;
+            while (next < events.size() && events.get(next).atMs <= now) {
+                events.get(next++).deliverTo(reconciler);
+            }
+            reconciler.tick(now);
+            pacer.pause(CaptionReplay.TICK_MS);
+        }
+        Log.d(MainActivity.TAG, "Captions: " + reconciler.getPartials() + " partials and " + reconciler.getFinals()
+                + " finals sent as " + reconciler.getUpdates() + " updates");
+        pacer.pause(1000);
     }
 }
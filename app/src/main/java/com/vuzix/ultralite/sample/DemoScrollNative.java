@@ -1,11 +1,14 @@
 package com.vuzix.ultralite.sample;
 
 import android.content.Context;
+import android.util.Log;
 
 import com.vuzix.ultralite.EventListener;
+import com.vuzix.ultralite.LVGLImage;
 import com.vuzix.ultralite.Layout;
 import com.vuzix.ultralite.UltraliteSDK;
-import com.vuzix.ultralite.utils.scroll.TextToImageSlicer;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The SCROLL layout gives us a mechanism to send text in any font, including mixed fonts to the
@@ -27,70 +30,104 @@ public class DemoScrollNative {
     final static int fastScrollMilliSecs = 500;
 
     public static void runDemo(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop {
-        AckWaiter ackWaiter = new AckWaiter(ultralite);
-        ultralite.setLayout(Layout.SCROLL, 0, true, true, 0);
-        UltraliteSDK.ScrollingTextView scrollingTextView = ultralite.getScrollingTextView();
-        scrollingTextView.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, fastScrollMilliSecs, false);
+        runDemo(context, demoActivityViewModel, GlassesDevice.of(ultralite));
+    }
+
+    static void runDemo(Context context, MainActivity.DemoPacer pacer, GlassesDevice glasses) throws MainActivity.Stop {
+        try {
+            scrollText(context, pacer, glasses);
+        } catch (InterruptedException e) {
+            throw new MainActivity.Stop(false);
+        }
+    }
+
+    private static void scrollText(Context context, MainActivity.DemoPacer pacer, GlassesDevice glasses)
+            throws MainActivity.Stop, InterruptedException {
+        // Every command goes through the link scheduler, which hands them to the SDK in order and no
+        // faster than the link drains them. Slices span the display width at 2 bits per pixel.
+        LinkScheduler scheduler = LinkScheduler.get(glasses);
+        final int sliceBytes = UltraliteSDK.Canvas.WIDTH * sliceHeight * 2 / 8;
+        scheduler.submit(null, 0, () -> glasses.setLayout(Layout.SCROLL, 0, true, true, 0));
+        scheduler.submit(null, 0, () -> glasses.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, fastScrollMilliSecs, false));
         String teleprompterContents = context.getString(R.string.scroll_layout_native_text);
 
-        // This SDK class breaks up a huge text line into multiple slices. Each slice represents a
-        // single line of text. These slices be sent to the glasses which can efficiently show them
-        // and animate them as we expect in a teleprompter.
-        TextToImageSlicer slicer = new TextToImageSlicer(teleprompterContents, sliceHeight, fontSize);
+        // The SDK class TextToImageSlicer breaks up a huge text line into multiple slices. Each slice
+        // represents a single line of text. These slices be sent to the glasses which can efficiently
+        // show them and animate them as we expect in a teleprompter. We get them through a cache, so
+        // replaying the same script skips rendering them. The first time, each slice is still
+        // rendered only when we take it, so the first line is not held up by the rest.
+        SliceCache.Slices slices = SliceCache.get().open(teleprompterContents, sliceHeight, fontSize);
         int i = 0;
         // First let's fill the entire screen without waiting, and without scrolling
-        while (slicer.hasMoreSlices() && (i<maxLinesShowing) ) {
+        CompletableFuture<Long> lastLineAck = null;
+        while (slices.hasMoreSlices() && (i<maxLinesShowing) ) {
             // We send the line to the explicit index of the screen without scrolling the screen
             final boolean scrollFirst = false;
             final int sliceIndexNumber = maxLinesShowing - 1 - i;
-            scrollingTextView.sendScrollImage(slicer.getNextSlice(), sliceIndexNumber, scrollFirst);
-            // we'll wait until the glasses confirm each line has arrived, although this is not
-            // necessary as the underlying queue does this. But it demonstrates this mechanism which
-            // could allow us to synchronize our UI with the glasses UI
-            ackWaiter.waitForAck("Send line of text as image");
-            // When this wait finishes, the glasses have replied that they received the text we just sent
+            LVGLImage slice = slices.getNextSlice();
+            // Each line's future completes once the glasses have processed it. We don't stop to
+            // wait for it, so the next line is already on its way while the glasses process this
+            // one. This is not necessary as the scheduler keeps the lines in order, but it
+            // demonstrates this mechanism which could allow us to synchronize our UI with the
+            // glasses UI
+            lastLineAck = scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(slice, sliceIndexNumber, scrollFirst));
             i++;
         }
+        if (lastLineAck != null) {
+            // The glasses reply in order, so once the last line is confirmed all of them are
+            AckWaiter.await(lastLineAck, "Fill screen with lines of text");
+            Log.d(MainActivity.TAG, "Screen filled, ack round trips: " + AckWaiter.getRoundTrips().summary());
+        }
         // Continue slicing the rest of that same content with some pauses in between
-        while (slicer.hasMoreSlices()) {
-            demoActivityViewModel.pause(2000);
+        while (slices.hasMoreSlices()) {
+            pacer.pause(2000);
             // Now we will just send the bottom slice, and request that the previous bottom be
             // scrolled up one position before accepting this as the new bottom slice
             final boolean scrollFirst = true;
             final int bottomSliceIndex = 0;
-            scrollingTextView.sendScrollImage(slicer.getNextSlice(), bottomSliceIndex, scrollFirst);
+            LVGLImage slice = slices.getNextSlice();
+            scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(slice, bottomSliceIndex, scrollFirst));
         }
-        demoActivityViewModel.pause(2000);
+        pacer.pause(2000);
 
         // We can then reconfigure to have a 4 second animation time
-        scrollingTextView.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, 4000, false);
-        // We can also just manually scroll the screen, which now takes 4 seconds
-        scrollingTextView.scrollNow();
+        scheduler.submit(null, 0, () -> glasses.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, 4000, false));
 
-        // And we can use an EventListener to find out when the glasses finish the scroll animation
-        final EventListener eventListener = new EventListener() {
-            @Override
-            public void onScrolled(boolean isScreenEmpty) {
-                synchronized (this) {
-                    notifyAll();
-                }
-            }
-        };
-        // That listener must be registered
-        ultralite.addEventListener(eventListener);
+        // We can use an EventListener to find out when the glasses finish the scroll animation.
+        // It must be registered, and before the scroll so it cannot miss the end of it.
+        ScrollListener eventListener = new ScrollListener();
+        glasses.addEventListener(eventListener);
+        // We can also just manually scroll the screen, which now takes 4 seconds
+        scheduler.submit(null, 0, glasses::scrollNow);
         // Now we wait here for the glasses to tell us the 4s animation has finished
-        synchronized (eventListener) {
+        eventListener.waitForScroll();
+        // And we can unregister the listener now that we're done
+        glasses.removeEventListener(eventListener);
+
+        // Then we can manually clear an arbitrary slice. In this case, our topmost one.
+        scheduler.submit(null, 0, () -> glasses.clearScrollSlice(maxLinesShowing - 1));
+        pacer.pause(2000);
+    }
+
+    // Tells when the glasses have finished a scroll animation
+    static class ScrollListener implements EventListener {
+        private boolean scrolled;
+
+        @Override
+        public synchronized void onScrolled(boolean isScreenEmpty) {
+            scrolled = true;
+            notifyAll();
+        }
+
+        // This method blocks the calling thread until the scroll has finished
+        public synchronized void waitForScroll() throws MainActivity.Stop {
             try {
-                eventListener.wait();
+                while (!scrolled) {
+                    wait();
+                }
             } catch (InterruptedException e) {
                 throw new MainActivity.Stop(true);
             }
         }
-        // And we can unregister the listener now that we're done
-        ultralite.removeEventListener(eventListener);
-
-        // Then we can manually clear an arbitrary slice. In this case, our topmost one.
-        scrollingTextView.clear(maxLinesShowing - 1);
-        demoActivityViewModel.pause(2000);
     }
 }
@@ -6,7 +6,6 @@ import com.vuzix.ultralite.EventListener;
 import com.vuzix.ultralite.LVGLImage;
 import com.vuzix.ultralite.Layout;
 import com.vuzix.ultralite.UltraliteSDK;
-import com.vuzix.ultralite.utils.scroll.TextToImageSlicer;
 
 /**
  * This class demonstrates using tap input from the glasses.
@@ -19,44 +18,62 @@ public class DemoTapInput {
     final static int fastScrollMilliSecs = 500;
 
     public static void runDemo(Context context, MainActivity.DemoActivityViewModel demoActivityViewModel, UltraliteSDK ultralite) throws MainActivity.Stop {
+        runDemo(context, demoActivityViewModel, GlassesDevice.of(ultralite));
+    }
+
+    static void runDemo(Context context, MainActivity.DemoPacer pacer, GlassesDevice glasses) throws MainActivity.Stop {
+        try {
+            showTaps(context, pacer, glasses);
+        } catch (InterruptedException e) {
+            throw new MainActivity.Stop(false);
+        }
+    }
+
+    private static void showTaps(Context context, MainActivity.DemoPacer pacer, GlassesDevice glasses)
+            throws MainActivity.Stop, InterruptedException {
         final int SCREEN_TIMEOUT_SECS = 15;
         final boolean HIDE_STATUS_BAR = false;
         final int maxTaps = 2;
         boolean animateTaps = true;
+        // Commands go through the link scheduler, so they stay in order with whatever an earlier
+        // demo still has queued. Slices span the display width at 2 bits per pixel.
+        LinkScheduler scheduler = LinkScheduler.get(glasses);
+        final int sliceBytes = UltraliteSDK.Canvas.WIDTH * sliceHeight * 2 / 8;
         // Taps work in all layouts, and we'll use the scroll layout since it is convenient.
         // We specify the tap behavior when calling setLayout.
-        ultralite.setLayout(Layout.SCROLL, SCREEN_TIMEOUT_SECS, HIDE_STATUS_BAR, animateTaps, maxTaps);
-        UltraliteSDK.ScrollingTextView scrollingTextView = ultralite.getScrollingTextView();
-        scrollingTextView.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, fastScrollMilliSecs, false);
+        scheduler.submit(null, 0, () -> glasses.setLayout(Layout.SCROLL, SCREEN_TIMEOUT_SECS, HIDE_STATUS_BAR, animateTaps, maxTaps));
+        scheduler.submit(null, 0, () -> glasses.scrollLayoutConfig(sliceHeight, lowestLineShowing, maxLinesShowing, fastScrollMilliSecs, false));
 
-        // Create several images of text we can choose between to show the status
-        LVGLImage tapOnce = new TextToImageSlicer(context.getString(R.string.tap_once), sliceHeight, fontSize).getSliceAt(0);
-        LVGLImage tapTwice = new TextToImageSlicer(context.getString(R.string.tap_twice), sliceHeight, fontSize).getSliceAt(0);
-        LVGLImage tappedOnce = new TextToImageSlicer(context.getString(R.string.tapped_1), sliceHeight, fontSize).getSliceAt(0);
-        LVGLImage tappedTwice = new TextToImageSlicer(context.getString(R.string.tapped_2), sliceHeight, fontSize).getSliceAt(0);
+        // Create several images of text we can choose between to show the status. The slices are
+        // cached, so running the demo again does not render them again.
+        SliceCache slices = SliceCache.get();
+        LVGLImage tapOnce = slices.firstSlice(context.getString(R.string.tap_once), sliceHeight, fontSize);
+        LVGLImage tapTwice = slices.firstSlice(context.getString(R.string.tap_twice), sliceHeight, fontSize);
+        LVGLImage tappedOnce = slices.firstSlice(context.getString(R.string.tapped_1), sliceHeight, fontSize);
+        LVGLImage tappedTwice = slices.firstSlice(context.getString(R.string.tapped_2), sliceHeight, fontSize);
 
         // We need to add an event listener if we want to know when the taps occur
         TapListener tapListener = new TapListener();
-        ultralite.addEventListener(tapListener);
+        glasses.addEventListener(tapListener);
 
         // Show the instructions on the glasses
-        scrollingTextView.sendScrollImage(tapOnce, lowestLineShowing, false);
+        scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(tapOnce, lowestLineShowing, false));
         int numTaps;
         do {
             numTaps = tapListener.waitForTaps();
             if(numTaps == 1) {
                 // Got one tap, indicate we got it
-                scrollingTextView.sendScrollImage(tappedOnce, lowestLineShowing, true);
+                scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(tappedOnce, lowestLineShowing, true));
                 // Now configures to allow double-taps, and instruct the user to tap twice
-                scrollingTextView.sendScrollImage(tapTwice, lowestLineShowing, true);
+                scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(tapTwice, lowestLineShowing, true));
             }
         } while (numTaps != 2);
         // We got 2 taps, indicate this on the glasses
-        scrollingTextView.sendScrollImage(tappedTwice, lowestLineShowing, true);
-        scrollingTextView.scrollNow();
-        demoActivityViewModel.pause(2000);
+        scheduler.submit(null, sliceBytes, () -> glasses.sendScrollImage(tappedTwice, lowestLineShowing, true));
+        scheduler.submit(null, 0, glasses::scrollNow);
+        pacer.pause(2000);
         // Unregister this so our listener stops being called
-        ultralite.removeEventListener(tapListener);
+        glasses.removeEventListener(tapListener);
     }
 
     // The event listener has many indications, this one is occurs when the frames are touched
@@ -0,0 +1,535 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.Anchor;
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.TextAlignment;
+import com.vuzix.ultralite.TextWrapMode;
+import com.vuzix.ultralite.UltraliteColor;
+import com.vuzix.ultralite.UltraliteSDK;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A retained-mode wrapper around the canvas of a {@link GlassesDevice}.
+ *
+ * Every update to a text, image or animation is staged until {@link #commit()}. At commit time each
+ * element is compared against the state the glasses were last sent, and only real changes go over
+ * Bluetooth: repeated updates to one element inside a commit collapse to the last one, and updates
+ * that would leave the element as it already is are dropped. A commit with nothing to send is
+ * dropped too.
+ *
+ * Because every text, image and animation is created through this class, it is also the app-wide
+ * registry of what is live on the glasses. {@link #reset()} removes exactly those objects in a
+ * single commit instead of blindly removing every possible id.
+ *
+ * Counters record how many commands callers asked for and how many were actually sent, so the
+ * saving can be reported per session with {@link #logSessionStats(String)}.
+ *
+ * Commits may be sent from the {@link LinkScheduler} thread, as {@link CommitPipeline} does. Such a
+ * commit takes the staged changes with {@link #stage} when it is issued and sends exactly those,
+ * so a page staged meanwhile for the next commit is never sent half done. So that commands reach
+ * the glasses in the order they were issued, every method that sends to the device first waits,
+ * without holding the lock the scheduler needs to commit, until the scheduler has sent everything
+ * queued before it.
+ */
+public class GlassesCanvas {
+    private static final String TAG = "GlassesCanvas";
+
+    private static final ElementState UNKNOWN = new ElementState();
+
+    private static final Map<GlassesDevice, GlassesCanvas> instances = new HashMap<>();
+
+    private final GlassesDevice device;
+
+    // Last state sent to the glasses, and the state staged for the next commit
+    private final Map<Integer, ElementState> committedTexts = new HashMap<>();
+    private final Map<Integer, ElementState> committedImages = new HashMap<>();
+    private final Map<Integer, ElementState> committedAnimations = new HashMap<>();
+    private final Map<Integer, ElementState> pendingTexts = new LinkedHashMap<>();
+    private final Map<Integer, ElementState> pendingImages = new LinkedHashMap<>();
+    private final Map<Integer, ElementState> pendingAnimations = new LinkedHashMap<>();
+    // True when a command that is not tracked here (create, remove, background) awaits a commit
+    private boolean uncommittedCommands;
+
+    private int requestedCommands;
+    private int sentCommands;
+
+    /**
+     * The last known state of one element, or the changes staged for it. Fields that are null/unset
+     * are not known, or have not been changed.
+     */
+    private static class ElementState {
+        String text;
+        LVGLImage image;
+        Boolean visible;
+        Anchor anchor;
+        int x = Integer.MIN_VALUE;
+        int y = Integer.MIN_VALUE;
+
+        /**
+         * @return this state with the fields {@code changes} sets taken from it
+         */
+        ElementState merge(ElementState changes) {
+            ElementState merged = new ElementState();
+            merged.text = changes.text != null ? changes.text : text;
+            merged.image = changes.image != null ? changes.image : image;
+            merged.visible = changes.visible != null ? changes.visible : visible;
+            boolean moved = changes.x != Integer.MIN_VALUE;
+            merged.anchor = moved ? changes.anchor : anchor;
+            merged.x = moved ? changes.x : x;
+            merged.y = moved ? changes.y : y;
+            return merged;
+        }
+
+        boolean samePosition(ElementState other) {
+            return anchor == other.anchor && x == other.x && y == other.y;
+        }
+    }
+
+    /**
+     * The changes staged for one commit, taken by {@link #stage} when the commit is issued so that
+     * changes staged afterwards cannot slip into it, however late it is sent.
+     */
+    static final class StagedCommit {
+        private final Map<Integer, ElementState> texts = new LinkedHashMap<>();
+        private final Map<Integer, ElementState> images = new LinkedHashMap<>();
+        private final Map<Integer, ElementState> animations = new LinkedHashMap<>();
+        private boolean commands;
+        private boolean sent;
+    }
+
+    GlassesCanvas(GlassesDevice device) {
+        this.device = device;
+    }
+
+    /**
+     * @return the app-wide wrapper for this SDK's canvas
+     */
+    public static GlassesCanvas get(UltraliteSDK ultralite) {
+        return get(GlassesDevice.of(ultralite));
+    }
+
+    /**
+     * @return the wrapper for this device's canvas, shared by everything drawing on it
+     */
+    static synchronized GlassesCanvas get(GlassesDevice device) {
+        GlassesCanvas canvas = instances.get(device);
+        if (canvas == null) {
+            canvas = new GlassesCanvas(device);
+            instances.put(device, canvas);
+        }
+        return canvas;
+    }
+
+    /**
+     * Forget the canvas of a device that is gone, such as closed simulated glasses.
+     */
+    static synchronized void release(GlassesDevice device) {
+        instances.remove(device);
+    }
+
+    public int createText(String text, TextAlignment alignment, UltraliteColor color, Anchor anchor,
+                          int x, int y, int width, int height, TextWrapMode wrapMode, boolean visible) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            int id = device.createText(text, alignment, color, anchor, x, y, width, height, wrapMode, visible);
+            if (id != -1) {
+                ElementState state = new ElementState();
+                state.text = text;
+                state.visible = visible;
+                state.anchor = anchor;
+                state.x = x;
+                state.y = y;
+                committedTexts.put(id, state);
+                pendingTexts.remove(id);
+            }
+            return id;
+        }
+    }
+
+    public synchronized void updateText(int id, String text) {
+        requestedCommands++;
+        pending(pendingTexts, id).text = text;
+    }
+
+    public synchronized void moveText(int id, Anchor anchor, int x, int y) {
+        requestedCommands++;
+        ElementState state = pending(pendingTexts, id);
+        state.anchor = anchor;
+        state.x = x;
+        state.y = y;
+    }
+
+    public synchronized void setTextVisible(int id, boolean visible) {
+        requestedCommands++;
+        pending(pendingTexts, id).visible = visible;
+    }
+
+    public void removeText(int id) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            committedTexts.remove(id);
+            pendingTexts.remove(id);
+            device.removeText(id);
+        }
+    }
+
+    public int createImage(LVGLImage image, Anchor anchor) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            int id = device.createImage(image, anchor);
+            if (id != -1) {
+                ElementState state = new ElementState();
+                state.image = image;
+                committedImages.put(id, state);
+                pendingImages.remove(id);
+            }
+            return id;
+        }
+    }
+
+    public synchronized void updateImage(int id, LVGLImage image) {
+        requestedCommands++;
+        pending(pendingImages, id).image = image;
+    }
+
+    public synchronized void moveImage(int id, int x, int y) {
+        requestedCommands++;
+        ElementState state = pending(pendingImages, id);
+        state.x = x;
+        state.y = y;
+    }
+
+    public synchronized void setImageVisible(int id, boolean visible) {
+        requestedCommands++;
+        pending(pendingImages, id).visible = visible;
+    }
+
+    public void removeImage(int id) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            committedImages.remove(id);
+            pendingImages.remove(id);
+            device.removeImage(id);
+        }
+    }
+
+    public int createAnimation(LVGLImage[] images, Anchor anchor, int duration) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            int id = device.createAnimation(images, anchor, duration);
+            if (id != -1) {
+                committedAnimations.put(id, new ElementState());
+                pendingAnimations.remove(id);
+            }
+            return id;
+        }
+    }
+
+    public synchronized void moveAnimation(int id, int x, int y) {
+        requestedCommands++;
+        ElementState state = pending(pendingAnimations, id);
+        state.x = x;
+        state.y = y;
+    }
+
+    public synchronized void setAnimationVisible(int id, boolean visible) {
+        requestedCommands++;
+        pending(pendingAnimations, id).visible = visible;
+    }
+
+    public void removeAnimation(int id) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            committedAnimations.remove(id);
+            pendingAnimations.remove(id);
+            device.removeAnimation(id);
+        }
+    }
+
+    public void drawBackground(LVGLImage image, int x, int y) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            device.drawBackground(image, x, y);
+        }
+    }
+
+    public void drawBackground(LVGLImage image, android.graphics.Point[] coordinates) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            device.drawBackground(image, coordinates);
+        }
+    }
+
+    public void clearBackgroundRect(int x, int y, int width, int height) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            device.clearBackgroundRect(x, y, width, height);
+        }
+    }
+
+    public void clearBackgroundRect(int x, int y, int width, int height, UltraliteColor color) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            device.clearBackgroundRect(x, y, width, height, color);
+        }
+    }
+
+    public void clearBackground() {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            sentCommands++;
+            uncommittedCommands = true;
+            device.clearBackground();
+        }
+    }
+
+    /**
+     * Send every staged change that differs from what the glasses already show, then commit.
+     */
+    public void commit() {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            if (flush(stage(null))) {
+                sentCommands++;
+                device.commit();
+            }
+        }
+    }
+
+    /**
+     * Take everything staged so far for a commit that is sent later by {@link #commit(StagedCommit)},
+     * possibly from another thread. Changes staged after this go into the next commit.
+     *
+     * @param unsent an earlier commit that may not have been sent yet, or null. If it has not, the
+     *               staged changes are added to it and it is returned, so one commit sends both.
+     */
+    synchronized StagedCommit stage(StagedCommit unsent) {
+        StagedCommit staged = unsent != null && !unsent.sent ? unsent : new StagedCommit();
+        stage(pendingTexts, staged.texts);
+        stage(pendingImages, staged.images);
+        stage(pendingAnimations, staged.animations);
+        staged.commands |= uncommittedCommands;
+        uncommittedCommands = false;
+        return staged;
+    }
+
+    /**
+     * Send a commit taken by {@link #stage}, unless it was sent already. Safe to call from the
+     * {@link LinkScheduler} thread.
+     */
+    void commit(StagedCommit staged) {
+        awaitScheduled();
+        synchronized (this) {
+            if (staged.sent) {
+                return;
+            }
+            requestedCommands++;
+            if (flush(staged)) {
+                sentCommands++;
+                device.commit();
+            }
+        }
+    }
+
+    /**
+     * Like {@link #commit()}, but {@code onProcessed} runs once the glasses have processed the
+     * commit. The commit is always sent so the callback is guaranteed to fire.
+     */
+    public void commit(Runnable onProcessed) {
+        awaitScheduled();
+        synchronized (this) {
+            requestedCommands++;
+            flush(stage(null));
+            sentCommands++;
+            device.commit(onProcessed);
+        }
+    }
+
+    /**
+     * Remove every text, image and animation this app has created, clear the background, and
+     * commit, all in one batch. Staged but uncommitted updates are discarded.
+     */
+    public void reset() {
+        awaitScheduled();
+        synchronized (this) {
+            pendingTexts.clear();
+            pendingImages.clear();
+            pendingAnimations.clear();
+            int removed = committedTexts.size() + committedImages.size() + committedAnimations.size();
+            for (int id : committedTexts.keySet()) {
+                device.removeText(id);
+            }
+            for (int id : committedImages.keySet()) {
+                device.removeImage(id);
+            }
+            for (int id : committedAnimations.keySet()) {
+                device.removeAnimation(id);
+            }
+            committedTexts.clear();
+            committedImages.clear();
+            committedAnimations.clear();
+            device.clearBackground();
+            device.commit();
+            requestedCommands += removed + 2;
+            sentCommands += removed + 2;
+            uncommittedCommands = false;
+            Log.d(TAG, "Reset canvas, removed " + removed + " live objects");
+        }
+    }
+
+    /**
+     * Log how many commands were requested and sent since the last call, then reset the counters.
+     */
+    public synchronized void logSessionStats(String session) {
+        int saved = requestedCommands - sentCommands;
+        Log.d(TAG, session + ": sent " + sentCommands + " of " + requestedCommands + " canvas commands (saved " + saved + ")");
+        requestedCommands = 0;
+        sentCommands = 0;
+    }
+
+    private void awaitScheduled() {
+        try {
+            LinkScheduler.get(device).awaitSent();
+        } catch (InterruptedException e) {
+            Log.w(TAG, "Interrupted waiting for queued commands, sending anyway");
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Send what {@code staged} changes and record it as committed.
+     *
+     * @return true when anything needs to be committed
+     */
+    private boolean flush(StagedCommit staged) {
+        staged.sent = true;
+        boolean changed = staged.commands;
+        for (Map.Entry<Integer, ElementState> entry : staged.texts.entrySet()) {
+            int id = entry.getKey();
+            ElementState want = entry.getValue();
+            ElementState have = committedTexts.get(id);
+            if (have == null) {
+                // Not created through this wrapper, so send whatever was asked for
+                have = UNKNOWN;
+            }
+            if (want.text != null && !want.text.equals(have.text)) {
+                device.updateText(id, want.text);
+                sentCommands++;
+                changed = true;
+            }
+            if (want.anchor != null && !want.samePosition(have)) {
+                device.moveText(id, want.anchor, want.x, want.y);
+                sentCommands++;
+                changed = true;
+            }
+            if (want.visible != null && !want.visible.equals(have.visible)) {
+                device.setTextVisible(id, want.visible);
+                sentCommands++;
+                changed = true;
+            }
+            committedTexts.put(id, have.merge(want));
+        }
+        for (Map.Entry<Integer, ElementState> entry : staged.images.entrySet()) {
+            int id = entry.getKey();
+            ElementState want = entry.getValue();
+            ElementState have = committedImages.get(id);
+            if (have == null) {
+                have = UNKNOWN;
+            }
+            if (want.image != null && want.image != have.image) {
+                device.updateImage(id, want.image);
+                sentCommands++;
+                changed = true;
+            }
+            if (want.x != Integer.MIN_VALUE && !want.samePosition(have)) {
+                device.moveImage(id, want.x, want.y);
+                sentCommands++;
+                changed = true;
+            }
+            if (want.visible != null && !want.visible.equals(have.visible)) {
+                device.setImageVisible(id, want.visible);
+                sentCommands++;
+                changed = true;
+            }
+            committedImages.put(id, have.merge(want));
+        }
+        for (Map.Entry<Integer, ElementState> entry : staged.animations.entrySet()) {
+            int id = entry.getKey();
+            ElementState want = entry.getValue();
+            ElementState have = committedAnimations.get(id);
+            if (have == null) {
+                have = UNKNOWN;
+            }
+            if (want.x != Integer.MIN_VALUE && !want.samePosition(have)) {
+                device.moveAnimation(id, want.x, want.y);
+                sentCommands++;
+                changed = true;
+            }
+            if (want.visible != null && !want.visible.equals(have.visible)) {
+                device.setAnimationVisible(id, want.visible);
+                sentCommands++;
+                changed = true;
+            }
+            committedAnimations.put(id, have.merge(want));
+        }
+        return changed;
+    }
+
+    // Move the changes in pending to staged, the later change to a field winning
+    private static void stage(Map<Integer, ElementState> pending, Map<Integer, ElementState> staged) {
+        for (Map.Entry<Integer, ElementState> entry : pending.entrySet()) {
+            ElementState earlier = staged.get(entry.getKey());
+            staged.put(entry.getKey(), earlier != null ? earlier.merge(entry.getValue()) : entry.getValue());
+        }
+        pending.clear();
+    }
+
+    /**
+     * @return the changes staged for {@code id} so far
+     */
+    private static ElementState pending(Map<Integer, ElementState> pending, int id) {
+        ElementState state = pending.get(id);
+        if (state == null) {
+            state = new ElementState();
+            pending.put(id, state);
+        }
+        return state;
+    }
+}
@@ -0,0 +1,106 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Point;
+
+import com.vuzix.ultralite.Anchor;
+import com.vuzix.ultralite.EventListener;
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.Layout;
+import com.vuzix.ultralite.TextAlignment;
+import com.vuzix.ultralite.TextWrapMode;
+import com.vuzix.ultralite.UltraliteColor;
+import com.vuzix.ultralite.UltraliteSDK;
+
+/**
+ * The commands the content pipeline sends to the glasses, in one place.
+ *
+ * The SDK is reached through {@code UltraliteSDK.get(...)} and its nested canvas and scrolling
+ * views, none of which can be replaced off the device. {@link GlassesCanvas}, {@link AckWaiter},
+ * {@link LinkScheduler}, the page session and the live text and teleprompter senders talk to this
+ * interface instead, so they run the same against real glasses ({@link #of}) or a
+ * {@link SimulatedGlassesDevice}.
+ *
+ * Methods mirror the SDK calls of the same name, with canvas and scrolling commands flattened in.
+ * Control of the glasses, notifications and the SDK's own utility classes stay on
+ * {@link UltraliteSDK}.
+ */
+interface GlassesDevice {
+
+    /**
+     * @return the device backed by the SDK, shared by everything that uses this {@code ultralite}
+     */
+    static GlassesDevice of(UltraliteSDK ultralite) {
+        return SdkGlassesDevice.of(ultralite);
+    }
+
+    boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar, boolean animateTaps, int maxTaps);
+
+    boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar);
+
+    /**
+     * Run {@code onAck} once the glasses have processed every command sent before this one.
+     */
+    void requestAcknowledgement(Runnable onAck);
+
+    void addEventListener(EventListener listener);
+
+    void removeEventListener(EventListener listener);
+
+    int createText(String text, TextAlignment alignment, UltraliteColor color, Anchor anchor,
+                   int x, int y, int width, int height, TextWrapMode wrapMode, boolean visible);
+
+    boolean updateText(int id, String text);
+
+    boolean moveText(int id, Anchor anchor, int x, int y);
+
+    boolean setTextVisible(int id, boolean visible);
+
+    boolean removeText(int id);
+
+    int createImage(LVGLImage image, Anchor anchor);
+
+    boolean updateImage(int id, LVGLImage image);
+
+    boolean moveImage(int id, int x, int y);
+
+    boolean setImageVisible(int id, boolean visible);
+
+    boolean removeImage(int id);
+
+    int createAnimation(LVGLImage[] images, Anchor anchor, int duration);
+
+    boolean moveAnimation(int id, int x, int y);
+
+    boolean setAnimationVisible(int id, boolean visible);
+
+    boolean removeAnimation(int id);
+
+    void drawBackground(LVGLImage image, int x, int y);
+
+    void drawBackground(LVGLImage image, Point[] coordinates);
+
+    void clearBackgroundRect(int x, int y, int width, int height);
+
+    void clearBackgroundRect(int x, int y, int width, int height, UltraliteColor color);
+
+    void clearBackground();
+
+    void commit();
+
+    /**
+     * Commit, then run {@code onProcessed} once the glasses have processed the commit.
+     */
+    void commit(Runnable onProcessed);
+
+    void scrollLayoutConfig(int sliceHeight, int lowestLineShowing, int numberLinesShowing, int scrollTimeMs,
+                            boolean autoScroll);
+
+    void sendScrollImage(LVGLImage image, int index, boolean scrollFirst);
+
+    void scrollNow();
+
+    /**
+     * Clear the scroll slice at {@code index}, as {@code ScrollingTextView.clear(int)} does.
+     */
+    void clearScrollSlice(int index);
+}
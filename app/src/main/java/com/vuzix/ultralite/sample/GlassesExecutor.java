@@ -0,0 +1,264 @@
+package com.vuzix.ultralite.sample;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * The one thread that talks to the glasses.
+ *
+ * Every send in the app, whether a notification, a chapter or the demo, is a job on this executor,
+ * so two senders can never interleave commands on the same canvas. Queued jobs run in
+ * {@link Priority} order, and in submission order within a priority.
+ *
+ * Content jobs, which draw on the glasses for a long time, are submitted with
+ * {@link #submitContent}. Submitting one cancels the content job that is queued or running, so
+ * only the latest one ever runs. A running content job must check its {@link CancellationToken}
+ * and return promptly once it is cancelled. While it waits in {@link #pause}, short jobs that are
+ * queued behind it, such as notifications, run in the meantime rather than waiting for it to end.
+ */
+class GlassesExecutor {
+    private static final String TAG = "GlassesExecutor";
+
+    /**
+     * Order in which queued jobs run, most urgent first.
+     */
+    enum Priority {
+        NOTIFICATION,
+        CHAPTER_PAGE,
+        DEMO_STEP
+    }
+
+    /**
+     * A content job. It runs on the executor thread and should return soon after {@code token} is
+     * cancelled.
+     */
+    interface ContentJob {
+        void run(CancellationToken token);
+    }
+
+    /**
+     * Cancels one content job, and tells when it has finished. Cancelling a running job also
+     * interrupts it, so it wakes from {@link #pause} or from any other blocking wait; the job
+     * still runs its own cleanup after that, so wait for {@link #finished()} before anything that
+     * must come after it, such as releasing control of the glasses.
+     */
+    static final class CancellationToken {
+        private volatile boolean cancelled;
+        private volatile long cancelledAt;
+        // The thread running the job, while it runs
+        private Thread runner;
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+        synchronized void cancel() {
+            if (!cancelled) {
+                cancelledAt = System.nanoTime();
+                cancelled = true;
+            }
+            if (runner != null) {
+                runner.interrupt();
+            }
+        }
+
+        private synchronized boolean start(Thread thread) {
+            runner = thread;
+            return !cancelled;
+        }
+
+        private synchronized void finish() {
+            runner = null;
+            // Drop an interrupt from a late cancel so it cannot leak into the next job
+            Thread.interrupted();
+            finished.complete(null);
+        }
+
+        /**
+         * @return completes once the job has returned, or has been dropped without running
+         */
+        CompletableFuture<Void> finished() {
+            return finished;
+        }
+
+        /**
+         * Run {@code action} on the main thread once the job has finished, or after
+         * {@code timeoutMs} if it has not by then, whichever comes first. It runs once.
+         */
+        void whenFinished(long timeoutMs, Runnable action) {
+            Handler main = new Handler(Looper.getMainLooper());
+            AtomicBoolean ran = new AtomicBoolean();
+            Runnable once = () -> {
+                if (ran.compareAndSet(false, true)) {
+                    action.run();
+                }
+            };
+            finished.thenRun(() -> main.post(once));
+            main.postDelayed(once, timeoutMs);
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return how long ago the job was cancelled, for measuring how quickly it stopped, or -1
+         * if it was not cancelled
+         */
+        long millisSinceCancel() {
+            return cancelled ? (System.nanoTime() - cancelledAt) / 1_000_000 : -1;
+        }
+    }
+
+    private static final class Task implements Comparable<Task> {
+        private static final AtomicLong SEQUENCE = new AtomicLong();
+
+        final Priority priority;
+        final String name;
+        final long sequence = SEQUENCE.getAndIncrement();
+        final Runnable job;
+        // Only set for content jobs
+        final CancellationToken token;
+
+        Task(Priority priority, String name, Runnable job, CancellationToken token) {
+            this.priority = priority;
+            this.name = name;
+            this.job = job;
+            this.token = token;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static GlassesExecutor instance;
+
+    private final PriorityBlockingQueue<Task> queue = new PriorityBlockingQueue<>();
+    private final Thread worker;
+    private CancellationToken currentContent;
+
+    static synchronized GlassesExecutor get() {
+        if (instance == null) {
+            instance = new GlassesExecutor();
+        }
+        return instance;
+    }
+
+    private GlassesExecutor() {
+        worker = new Thread(this::runJobs, TAG);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queue a short job, such as a notification. It does not affect content jobs.
+     */
+    void submit(Priority priority, String name, Runnable job) {
+        queue.add(new Task(priority, name, job, null));
+    }
+
+    /**
+     * Queue a content job, cancelling the content job that is queued or running.
+     *
+     * @return the token that cancels this job and completes when it has finished
+     */
+    CancellationToken submitContent(Priority priority, String name, ContentJob job) {
+        CancellationToken token = new CancellationToken();
+        synchronized (this) {
+            if (currentContent != null) {
+                currentContent.cancel();
+            }
+            currentContent = token;
+        }
+        queue.add(new Task(priority, name, () -> job.run(token), token));
+        return token;
+    }
+
+    /**
+     * Wait {@code ms} from a content job, returning early if {@code token} is cancelled. On the
+     * executor thread, queued short jobs run during the wait.
+     */
+    void pause(CancellationToken token, long ms) throws InterruptedException {
+        pause(token, ms, () -> false);
+    }
+
+    /**
+     * Like {@link #pause(CancellationToken, long)}, but also returns once {@code wakeWhen} is true.
+     * Whoever makes it true must call {@link #wake()} so the wait notices.
+     */
+    void pause(CancellationToken token, long ms, BooleanSupplier wakeWhen) throws InterruptedException {
+        long deadline = System.nanoTime() / 1_000_000 + ms;
+        while (!token.isCancelled() && !wakeWhen.getAsBoolean()) {
+            long remaining = deadline - System.nanoTime() / 1_000_000;
+            if (remaining <= 0) {
+                return;
+            }
+            if (Thread.currentThread() != worker) {
+                // Not our thread, so there are no jobs to run; just wait
+                Thread.sleep(Math.min(remaining, 100));
+                continue;
+            }
+            Task next = queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            if (next.token != null) {
+                // Another content job has to wait for this one to return. Submitting it already
+                // cancelled us, so the loop ends here.
+                if (!next.token.isCancelled()) {
+                    queue.add(next);
+                } else {
+                    // Dropped here, so it never runs and never finishes on its own
+                    next.token.finished.complete(null);
+                }
+                continue;
+            }
+            run(next);
+        }
+    }
+
+    /**
+     * Wake a {@link #pause} so it re-checks its condition.
+     */
+    void wake() {
+        submit(Priority.NOTIFICATION, "wake", () -> {});
+    }
+
+    private void runJobs() {
+        while (true) {
+            try {
+                run(queue.take());
+            } catch (InterruptedException e) {
+                // Only a cancel aimed at a job that already finished can get here; keep going
+                Log.d(TAG, "Ignoring stray interrupt");
+            }
+        }
+    }
+
+    private void run(Task task) {
+        if (task.token != null && !task.token.start(Thread.currentThread())) {
+            Log.d(TAG, "Skipping cancelled job \"" + task.name + "\"");
+            task.token.finish();
+            return;
+        }
+        Log.d(TAG, "Running " + task.priority + " job \"" + task.name + "\"");
+        try {
+            task.job.run();
+        } catch (RuntimeException e) {
+            // One failed job must not take the glasses down for the rest of the app
+            Log.e(TAG, "Job \"" + task.name + "\" failed", e);
+        } finally {
+            if (task.token != null) {
+                task.token.finish();
+            }
+        }
+    }
+}
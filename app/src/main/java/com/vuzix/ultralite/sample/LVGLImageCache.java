@@ -0,0 +1,90 @@
+package com.vuzix.ultralite.sample;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.BitmapDrawable;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.core.content.res.ResourcesCompat;
+
+import com.vuzix.ultralite.LVGLImage;
+
+/**
+ * Keeps recently used drawables already converted to {@link LVGLImage}, so showing the same image
+ * again costs no decoding or conversion.
+ *
+ * Entries are keyed by resource id and colour format, and the cache is bounded by the size of the
+ * converted pixel data, evicting the least recently used images first. Hits, misses and the time
+ * spent converting are kept for {@link #logStats()}.
+ */
+class LVGLImageCache {
+    private static final String TAG = "LVGLImageCache";
+    private static final int MAX_BYTES = 1024 * 1024;
+
+    private static final class Entry {
+        final LVGLImage image;
+        final int bytes;
+
+        Entry(LVGLImage image, int bytes) {
+            this.image = image;
+            this.bytes = bytes;
+        }
+    }
+
+    private static LVGLImageCache instance;
+
+    private final LruCache<Long, Entry> cache = new LruCache<Long, Entry>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(Long key, Entry entry) {
+            return entry.bytes;
+        }
+    };
+    private long conversionNanos;
+    private int conversions;
+
+    static synchronized LVGLImageCache get() {
+        if (instance == null) {
+            instance = new LVGLImageCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @param colorFormat {@link LVGLImage#CF_INDEXED_1_BIT} or {@link LVGLImage#CF_INDEXED_2_BIT}
+     * @return the drawable as an LVGLImage at its original dimensions
+     */
+    LVGLImage load(Context context, int resource, int colorFormat) {
+        Long key = ((long) resource << 8) | colorFormat;
+        Entry entry = cache.get(key);
+        if (entry != null) {
+            return entry.image;
+        }
+        long start = System.nanoTime();
+        BitmapDrawable drawable = (BitmapDrawable) ResourcesCompat.getDrawable(
+                context.getResources(), resource, context.getTheme());
+        Bitmap bitmap = drawable.getBitmap();
+        LVGLImage image = LVGLImage.fromBitmap(bitmap, colorFormat);
+        long elapsed = System.nanoTime() - start;
+        synchronized (this) {
+            conversionNanos += elapsed;
+            conversions++;
+        }
+        int bitsPerPixel = colorFormat == LVGLImage.CF_INDEXED_1_BIT ? 1 : 2;
+        cache.put(key, new Entry(image, Math.max(1, (bitmap.getWidth() * bitsPerPixel + 7) / 8 * bitmap.getHeight())));
+        Log.d(TAG, "Converted resource " + resource + " in " + elapsed / 1000 + " us");
+        return image;
+    }
+
+    void logStats() {
+        long nanos;
+        int count;
+        synchronized (this) {
+            nanos = conversionNanos;
+            count = conversions;
+        }
+        Log.d(TAG, cache.hitCount() + " hits, " + cache.missCount() + " misses, " + count + " conversions taking "
+                + nanos / 1_000_000 + " ms, " + cache.size() + "/" + cache.maxSize() + " bytes cached, "
+                + cache.evictionCount() + " evictions");
+    }
+}
@@ -0,0 +1,80 @@
+package com.vuzix.ultralite.sample;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A latency histogram with power-of-two buckets, cheap enough to record on every ack.
+ *
+ * Bucket {@code i} counts samples below {@code 2^i} microseconds (and at or above the previous
+ * bound), so percentiles are reported as the upper bound of their bucket, which is within a factor
+ * of two of the true value. Safe to record from any thread.
+ */
+class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = maxMicros.get()) && !maxMicros.compareAndSet(max, micros)) {
+            // Retry until our sample is no longer the largest or has been stored
+        }
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    /**
+     * @return an upper bound, in microseconds, for the given percentile (0 to 100), or 0 when
+     * nothing has been recorded
+     */
+    long percentileMicros(double percentile) {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= Math.max(1, rank)) {
+                return Math.min(1L << i, maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sumMicros.set(0);
+        maxMicros.set(0);
+    }
+
+    /**
+     * @return a one-line summary in milliseconds, suitable for the log
+     */
+    String summary() {
+        long total = count.get();
+        if (total == 0) {
+            return "no samples";
+        }
+        return String.format(Locale.US, "n=%d mean=%.1fms p50<=%.1fms p90<=%.1fms p99<=%.1fms max=%.1fms",
+                total, sumMicros.get() / 1000.0 / total,
+                percentileMicros(50) / 1000.0, percentileMicros(90) / 1000.0,
+                percentileMicros(99) / 1000.0, maxMicros.get() / 1000.0);
+    }
+}
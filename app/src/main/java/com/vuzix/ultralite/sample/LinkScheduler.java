@@ -0,0 +1,342 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.UltraliteSDK;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends commands to the glasses no faster than the Bluetooth link drains them, so what the
+ * glasses show never falls far behind what the app has produced.
+ *
+ * The SDK queues every command it is given, and a fast producer can fill that queue with seconds
+ * of content. Instead, producers {@link #submit} each command here with an estimate of its size.
+ * One sender thread passes commands to the SDK in order, as many at a time as the budget allows:
+ * commands are only handed to the SDK while the bytes already in flight would drain within
+ * {@link #MAX_LAG_MS}, and {@link #submit} blocks the producer while the queue holds more than
+ * that.
+ *
+ * Acks cost link time like any other command, so they are not requested per command. One ack
+ * covers everything sent up to it, and only one is outstanding at a time: when it comes back, one
+ * more is requested for whatever was sent meanwhile. A busy link therefore carries about one ack
+ * per round trip, however many commands go out. The time the link took to serve each acked group
+ * keeps a running estimate of its throughput. On a link whose round trip is longer than
+ * {@link #MAX_LAG_MS}, two round trips' worth of bytes may be in flight instead. With less, the
+ * link would idle waiting for each ack and the estimate, taken from what the acks show, could
+ * only fall.
+ *
+ * A command submitted with a key replaces a queued, not yet sent command with the same key, so an
+ * element that is updated faster than the link allows only sends its latest state. A command
+ * without a key is a barrier: it is never replaced, and later keyed commands do not replace
+ * anything queued before it, so ordering between the two is preserved.
+ *
+ * Commands sent straight to the SDK are not paced, and could overtake queued ones. Call
+ * {@link #awaitSent} before sending one, as {@link GlassesCanvas} does, so the SDK receives every
+ * command in the order it was issued; call {@link #drain} before one that depends on everything
+ * submitted so far having been processed, such as a layout change.
+ */
+class LinkScheduler {
+    private static final String TAG = "LinkScheduler";
+    static final long MAX_LAG_MS = 300;
+    // Until the first acks come back, assume a slow link
+    private static final int INITIAL_BYTES_PER_SECOND = 20_000;
+    private static final double SMOOTHING = 0.25;
+    // How many recent acks the link's round trip is taken from
+    private static final int ROUND_TRIPS_KEPT = 16;
+    private static final Runnable NOTHING = () -> { };
+
+    private static final Map<GlassesDevice, LinkScheduler> instances = new HashMap<>();
+
+    private static final class Command {
+        final Object key;
+        final long queuedAt;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        Runnable send;
+        int bytes;
+        long sentAt;
+
+        Command(Object key, int bytes, Runnable send) {
+            this.key = key;
+            this.bytes = bytes;
+            this.send = send;
+            this.queuedAt = System.nanoTime();
+        }
+    }
+
+    private final AckWaiter ackWaiter;
+    private final ArrayDeque<Command> queue = new ArrayDeque<>();
+    // Queued commands that may still be replaced, by key
+    private final Map<Object, Command> replaceable = new HashMap<>();
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final Thread sender;
+    // Sent commands the outstanding ack does not cover yet
+    private final List<Command> unacked = new ArrayList<>();
+    private boolean ackOutstanding;
+    // True while the sender is handing commands to the SDK
+    private boolean sending;
+    private long queuedBytes;
+    private long inFlightBytes;
+    private int inFlightCommands;
+    private double bytesPerSecond = INITIAL_BYTES_PER_SECOND;
+    // Round trips of the latest acks, oldest overwritten first
+    private final long[] roundTrips = new long[ROUND_TRIPS_KEPT];
+    private int roundTripCount;
+    private long lastAckAt;
+    private int sent;
+    private int replaced;
+    private int acks;
+    private long bytesSent;
+
+    LinkScheduler(GlassesDevice device) {
+        this.ackWaiter = new AckWaiter(device);
+        sender = new Thread(this::sendLoop, "LinkScheduler");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * @return the app-wide scheduler for this SDK's link
+     */
+    static LinkScheduler get(UltraliteSDK ultralite) {
+        return get(GlassesDevice.of(ultralite));
+    }
+
+    /**
+     * @return the scheduler for this device's link, shared by everything sending to it
+     */
+    static LinkScheduler get(GlassesDevice device) {
+        synchronized (instances) {
+            LinkScheduler scheduler = instances.get(device);
+            if (scheduler == null) {
+                scheduler = new LinkScheduler(device);
+                instances.put(device, scheduler);
+            }
+            return scheduler;
+        }
+    }
+
+    /**
+     * Stop the scheduler of a device that is gone, such as closed simulated glasses, and forget it.
+     * Its sender thread ends, and commands still queued complete exceptionally without being sent.
+     */
+    static void release(GlassesDevice device) {
+        LinkScheduler scheduler;
+        synchronized (instances) {
+            scheduler = instances.remove(device);
+        }
+        if (scheduler != null) {
+            scheduler.stop();
+        }
+    }
+
+    private synchronized void stop() {
+        IllegalStateException stopped = new IllegalStateException("Link scheduler stopped");
+        for (Command command : queue) {
+            command.done.completeExceptionally(stopped);
+        }
+        queue.clear();
+        replaceable.clear();
+        queuedBytes = 0;
+        sender.interrupt();
+        notifyAll();
+    }
+
+    /**
+     * Queue a command for the glasses, waiting first if the queue is already full.
+     *
+     * @param key   identifies what the command updates, or null if it must not be replaced
+     * @param bytes roughly how much the command sends over the link
+     * @param send  calls the SDK; runs on the sender thread
+     * @return completes with the time from the first submit to the ack in nanoseconds, once the
+     * glasses have processed the command (or its replacement), or exceptionally if the ack timed out
+     */
+    synchronized CompletableFuture<Long> submit(Object key, int bytes, Runnable send) throws InterruptedException {
+        Command queued = key != null ? replaceable.get(key) : null;
+        if (queued != null) {
+            queuedBytes += bytes - queued.bytes;
+            queued.bytes = bytes;
+            queued.send = send;
+            replaced++;
+            return queued.done;
+        }
+        while (!queue.isEmpty() && queuedBytes + inFlightBytes > budgetBytes()) {
+            wait();
+        }
+        Command command = new Command(key, bytes, send);
+        if (key != null) {
+            replaceable.put(key, command);
+        } else {
+            replaceable.clear();
+        }
+        queue.add(command);
+        queuedBytes += bytes;
+        notifyAll();
+        return command.done;
+    }
+
+    /**
+     * @return completes once the glasses have processed everything submitted before this call
+     */
+    CompletableFuture<Long> requestAck() throws InterruptedException {
+        return submit(null, 0, NOTHING);
+    }
+
+    /**
+     * Wait until everything submitted so far has been handed to the SDK, though not necessarily
+     * processed by the glasses. A command sent straight to the SDK after this reaches the glasses
+     * after them. Returns at once on the sender thread, which is what is sending them.
+     */
+    synchronized void awaitSent() throws InterruptedException {
+        if (Thread.currentThread() == sender) {
+            return;
+        }
+        while (!queue.isEmpty() || sending) {
+            wait();
+        }
+    }
+
+    /**
+     * Wait until everything submitted so far has been sent and acknowledged.
+     */
+    synchronized void drain() throws InterruptedException {
+        while (!queue.isEmpty() || inFlightCommands > 0) {
+            wait();
+        }
+    }
+
+    /**
+     * @return how long the link would take to deliver what is queued and in flight now
+     */
+    synchronized long estimatedLagMs() {
+        return (long) ((queuedBytes + inFlightBytes) * 1000 / bytesPerSecond);
+    }
+
+    synchronized int getBytesPerSecond() {
+        return (int) bytesPerSecond;
+    }
+
+    synchronized void logStats() {
+        Log.d(TAG, "Sent " + sent + " commands (" + replaced + " replaced while queued) with " + acks + " acks, " + bytesSent
+                + " bytes at ~" + (int) bytesPerSecond + " B/s, submit to ack " + lag.summary());
+    }
+
+    /**
+     * @return how many bytes may be queued and in flight: what the link delivers in
+     * {@link #MAX_LAG_MS}, or in two round trips if that is longer. With just one round trip's
+     * worth in flight the acks could never show the link doing better than the estimate.
+     */
+    private long budgetBytes() {
+        double windowNanos = Math.max(MAX_LAG_MS * 1_000_000.0, 2.0 * minRoundTripNanos());
+        return (long) (bytesPerSecond * windowNanos / 1e9);
+    }
+
+    /**
+     * @return the shortest recent ack round trip, which is the link's latency with little queued
+     * ahead of the ack, or 0 before the first ack
+     */
+    private long minRoundTripNanos() {
+        int count = Math.min(roundTripCount, ROUND_TRIPS_KEPT);
+        long min = count == 0 ? 0 : Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            min = Math.min(min, roundTrips[i]);
+        }
+        return min;
+    }
+
+    private boolean canSend() {
+        return !queue.isEmpty() && (inFlightBytes == 0 || inFlightBytes + queue.peek().bytes <= budgetBytes());
+    }
+
+    private void sendLoop() {
+        while (true) {
+            List<Command> batch = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (!canSend() && (ackOutstanding || unacked.isEmpty())) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Log.w(TAG, "Sender interrupted, stopping");
+                    return;
+                }
+                // Everything the budget allows now goes out together
+                while (canSend()) {
+                    Command command = queue.poll();
+                    if (replaceable.get(command.key) == command) {
+                        replaceable.remove(command.key);
+                    }
+                    queuedBytes -= command.bytes;
+                    inFlightBytes += command.bytes;
+                    inFlightCommands++;
+                    batch.add(command);
+                }
+                sending = !batch.isEmpty();
+                notifyAll();
+            }
+            for (Command command : batch) {
+                command.sentAt = System.nanoTime();
+                try {
+                    command.send.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            List<Command> acking = null;
+            synchronized (this) {
+                sending = false;
+                unacked.addAll(batch);
+                if (!ackOutstanding && !unacked.isEmpty()) {
+                    acking = new ArrayList<>(unacked);
+                    unacked.clear();
+                    ackOutstanding = true;
+                    acks++;
+                }
+                notifyAll();
+            }
+            if (acking != null) {
+                List<Command> group = acking;
+                ackWaiter.requestAck("link scheduler").whenComplete((roundTrip, error) -> acked(group, roundTrip, error));
+            }
+        }
+    }
+
+    private synchronized void acked(List<Command> group, Long roundTrip, Throwable error) {
+        long now = System.nanoTime();
+        int groupBytes = 0;
+        for (Command command : group) {
+            inFlightBytes -= command.bytes;
+            inFlightCommands--;
+            groupBytes += command.bytes;
+        }
+        if (error != null) {
+            Log.w(TAG, error.getMessage());
+            for (Command command : group) {
+                command.done.completeExceptionally(error);
+            }
+        } else {
+            // The link served this group from when its first command was sent or the previous
+            // group finished
+            long serviceNanos = now - Math.max(group.get(0).sentAt, lastAckAt);
+            if (groupBytes > 0 && serviceNanos > 0) {
+                double sample = groupBytes * 1e9 / serviceNanos;
+                bytesPerSecond += SMOOTHING * (sample - bytesPerSecond);
+            }
+            lastAckAt = now;
+            roundTrips[roundTripCount++ % ROUND_TRIPS_KEPT] = roundTrip;
+            sent += group.size();
+            bytesSent += groupBytes;
+            for (Command command : group) {
+                lag.recordNanos(now - command.queuedAt);
+                command.done.complete(now - command.queuedAt);
+            }
+        }
+        ackOutstanding = false;
+        notifyAll();
+    }
+}
@@ -0,0 +1,156 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.util.Log;
+
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.UltraliteSDK;
+import com.vuzix.ultralite.sample.captions.CaptionReconciler;
+import com.vuzix.ultralite.sample.text.AdvanceTable;
+import com.vuzix.ultralite.sample.text.IntList;
+import com.vuzix.ultralite.sample.text.LineBreaker;
+import com.vuzix.ultralite.utils.scroll.TextToImageSlicer;
+
+/**
+ * Live text, such as captions from a speech recognizer, sent as deltas instead of as the whole
+ * text so far.
+ *
+ * {@code LiveText.sendText} takes the complete text on every update, so a long session rebuilds
+ * and re-diffs an ever-growing string. Here callers {@link #append} new text or
+ * {@link #replaceLast} a few revised characters. Once a line is full it is committed: it is sent
+ * one last time, scrolls up, and its text is dropped. Only the uncommitted tail, which is at most
+ * about a line, is kept, re-measured and re-sliced on an update, and it is only resent when it
+ * actually changed. An hour of text costs the same per update as the first minute.
+ *
+ * Lines are broken with {@link LineBreaker} against measured glyph widths for the slicer's font,
+ * so each line fits in one slice. Revisions can only reach back into the uncommitted tail;
+ * {@link #revisableLength} tells how far that is, so a {@link CaptionReconciler} feeding this never
+ * asks for more.
+ *
+ * Slices go out through the {@link LinkScheduler}. A revision of the bottom line that is still
+ * queued when the next one arrives is replaced by it, so a fast source only ever costs the link
+ * the latest text, and the feeder blocks rather than letting the glasses fall behind.
+ */
+class LiveTextFeeder implements CaptionReconciler.Sink {
+    private static final String TAG = "LiveTextFeeder";
+    private static final int SCROLL_MS = 500;
+    // Leave some slack so the slicer's own layout never wraps a measured line
+    private static final float WIDTH_FRACTION = 0.95f;
+
+    private final GlassesDevice device;
+    private final LinkScheduler scheduler;
+    // Scheduler key for revisions of the bottom line
+    private final Object bottomLine = new Object();
+    private final int sliceHeight;
+    private final int sliceBytes;
+    private final int fontSize;
+    private final LineBreaker lineBreaker;
+    private final StringBuilder tail = new StringBuilder();
+    private final IntList lines = new IntList();
+    // What the bottom slot shows now, or null if the next line starts a new slot
+    private String shownTail;
+    private boolean scrollBeforeNext;
+    private long committedChars;
+    private int slicesSent;
+
+    /**
+     * Configures the SCROLL layout, which the caller must already have set.
+     */
+    LiveTextFeeder(GlassesDevice device, int sliceHeight, int fontSize, int lowestLineShowing, int numberLinesShowing) {
+        this.device = device;
+        this.scheduler = LinkScheduler.get(device);
+        this.sliceHeight = sliceHeight;
+        // Slices span the display width at 2 bits per pixel
+        this.sliceBytes = UltraliteSDK.Canvas.WIDTH * sliceHeight * 2 / 8;
+        this.fontSize = fontSize;
+        device.scrollLayoutConfig(sliceHeight, lowestLineShowing, numberLinesShowing, SCROLL_MS, false);
+        AdvanceTable advances = new AdvanceTable((chars, widths) -> {
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTypeface(Typeface.DEFAULT);
+            paint.setTextSize(fontSize);
+            paint.getTextWidths(chars, 0, chars.length, widths);
+        });
+        lineBreaker = new LineBreaker(advances, UltraliteSDK.Canvas.WIDTH * WIDTH_FRACTION);
+    }
+
+    void append(CharSequence delta) {
+        tail.append(delta);
+        update();
+    }
+
+    /**
+     * Replace the last {@code count} characters, as a recognizer does when it revises its latest
+     * words. Characters in lines that were already committed cannot be replaced; only the
+     * uncommitted part of {@code count} is.
+     */
+    @Override
+    public void replaceLast(int count, String replacement) {
+        if (count > tail.length()) {
+            Log.w(TAG, "Can only revise the last " + tail.length() + " characters, not " + count);
+            count = tail.length();
+        }
+        tail.replace(tail.length() - count, tail.length(), replacement);
+        update();
+    }
+
+    /**
+     * @return how many of the last characters are not committed yet, and so can still be replaced
+     */
+    @Override
+    public int revisableLength() {
+        return tail.length();
+    }
+
+    /**
+     * @return the number of characters in lines that have been committed and dropped
+     */
+    long getCommittedChars() {
+        return committedChars;
+    }
+
+    int getSlicesSent() {
+        return slicesSent;
+    }
+
+    private void update() {
+        lines.clear();
+        int lineCount = lineBreaker.breakLines(tail, 0, tail.length(), lines);
+        if (lineCount == 0) {
+            return;
+        }
+        // Every line but the last is full: show its final text, then commit it
+        for (int i = 0; i < lineCount - 1; i++) {
+            show(tail.substring(lines.get(2 * i), lines.get(2 * i + 1)));
+            shownTail = null;
+            scrollBeforeNext = true;
+        }
+        int lastStart = lines.get(2 * (lineCount - 1));
+        if (lastStart > 0) {
+            committedChars += lastStart;
+            tail.delete(0, lastStart);
+        }
+        show(tail.substring(0, lines.get(2 * lineCount - 1) - lastStart));
+    }
+
+    private void show(String line) {
+        if (line.equals(shownTail)) {
+            return;
+        }
+        LVGLImage slice = new TextToImageSlicer(line, sliceHeight, fontSize).getNextSlice();
+        // Either replace what the bottom slot shows, or scroll it up and start a new one. Only a
+        // replacement may itself be replaced while queued.
+        boolean scroll = scrollBeforeNext;
+        try {
+            scheduler.submit(scroll ? null : bottomLine, sliceBytes,
+                    () -> device.sendScrollImage(slice, 0, scroll));
+        } catch (InterruptedException e) {
+            Log.i(TAG, "Live text update interrupted");
+            Thread.currentThread().interrupt();
+            return;
+        }
+        scrollBeforeNext = false;
+        shownTail = line;
+        slicesSent++;
+    }
+}
@@ -0,0 +1,57 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.sample.text.TextLog;
+
+import java.util.function.Supplier;
+
+/**
+ * When the app writes debug and per-line logs, for code whose messages are too many or too costly
+ * to build unconditionally.
+ *
+ * Debug messages are written in debug builds, and in release builds only for a tag switched on
+ * with {@code adb shell setprop log.tag.<TAG> DEBUG}. Verbose mode logs every event a
+ * {@link com.vuzix.ultralite.sample.text.LogSampler} would otherwise sample, such as each line
+ * sent. It exists only in debug builds, where it is switched on with
+ * {@code adb shell setprop log.tag.UltraliteVerbose VERBOSE} before the app starts; in release
+ * builds {@link #VERBOSE_BUILD} is false at compile time, so branches on it are not even compiled.
+ *
+ * Code in a loop checks {@link #isLoggable} or a sampler before building a message; elsewhere
+ * {@link #d(String, Supplier)} builds it only when it will be written.
+ */
+final class Logs {
+    static final boolean VERBOSE_BUILD = BuildConfig.VERBOSE_LOGS;
+    static final String VERBOSE_TAG = "UltraliteVerbose";
+    private static final boolean VERBOSE = VERBOSE_BUILD && Log.isLoggable(VERBOSE_TAG, Log.VERBOSE);
+
+    /**
+     * The same policy for the text engine, writing to logcat.
+     */
+    static final TextLog LOGCAT = new TextLog() {
+        @Override
+        public boolean isLoggable(String tag, int level) {
+            return Logs.isLoggable(tag, level);
+        }
+
+        @Override
+        public void log(int level, String tag, String message) {
+            Log.println(level, tag, message);
+        }
+    };
+
+    private Logs() {}
+
+    static boolean isLoggable(String tag, int level) {
+        if (level <= Log.VERBOSE) {
+            return VERBOSE;
+        }
+        return BuildConfig.DEBUG || Log.isLoggable(tag, level);
+    }
+
+    static void d(String tag, Supplier<String> message) {
+        if (isLoggable(tag, Log.DEBUG)) {
+            Log.d(tag, message.get());
+        }
+    }
+}
@@ -2,12 +2,11 @@ package com.vuzix.ultralite.sample;
 
 import android.app.Application;
 import android.content.Context;
-import android.graphics.drawable.BitmapDrawable;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.PowerManager;
-import android.os.SystemClock;
+import android.util.Log;
 import android.view.WindowManager;
 import android.widget.Button;
 import android.widget.ImageView;
@@ -16,7 +15,6 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.content.res.ResourcesCompat;
 import androidx.lifecycle.AndroidViewModel;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Observer;
@@ -165,49 +163,30 @@ public class MainActivity extends AppCompatActivity {
      */
     private void sendSampleNotification() {
         UltraliteSDK ultralite = UltraliteSDK.get(this);
-        ultralite.sendNotification("Ultralite SDK Sample", "Hello from a sample app!",
-                loadLVGLImage(this, R.drawable.rocket, false));
+        LVGLImage rocket = loadLVGLImage(this, R.drawable.rocket, false);
+        // Notifications jump ahead of queued content, and are sent even while content is pausing
+        GlassesExecutor.get().submit(GlassesExecutor.Priority.NOTIFICATION, "sample notification", () ->
+                ultralite.sendNotification("Ultralite SDK Sample", "Hello from a sample app!", rocket));
     }
 
     /**
      * This ViewModel will hold our state during the demo.
      */
-    public static class DemoActivityViewModel extends AndroidViewModel {
+    /**
+     * Waits between the steps of a demo, and throws {@link Stop} when the demo should end.
+     */
+    interface DemoPacer {
+        void pause(long ms) throws Stop;
+    }
+
+    public static class DemoActivityViewModel extends AndroidViewModel implements DemoPacer {
 
         private final UltraliteSDK ultralite;
         private final MutableLiveData<Boolean> running = new MutableLiveData<>();
-        private boolean haveControlOfGlasses;
-        private boolean shouldStartDemo = false; // Add flag to control when demo should start
-
-        // Static reference to demo thread for forced interruption
-        private static Thread demoThread;
-
-        public static void stopDemoIfRunning(UltraliteSDK ultralite) {
-            // Always clear content, regardless of thread state
-            if (demoThread != null && demoThread.isAlive()) {
-                demoThread.interrupt();
-            }
-            
-            // Clear all demo content
-            ultralite.getCanvas().clearBackground();
-            
-            // Clear text elements
-            for (int textId = 0; textId < 20; textId++) {
-                ultralite.getCanvas().removeText(textId);
-            }
-            
-            // Clear images
-            for (int imageId = 0; imageId < 20; imageId++) {
-                ultralite.getCanvas().removeImage(imageId);
-            }
-            
-            // Clear animations
-            for (int animId = 0; animId < 20; animId++) {
-                ultralite.getCanvas().removeAnimation(animId);
-            }
-            
-            ultralite.getCanvas().commit();
-        }
+        private volatile boolean haveControlOfGlasses;
+        private volatile boolean shouldStartDemo = false; // Add flag to control when demo should start
+        // Cancels the demo job; also cancelled when any other content is sent to the glasses
+        private volatile GlassesExecutor.CancellationToken demoToken;
 
         public DemoActivityViewModel(@NonNull Application application) {
             super(application);
@@ -237,9 +216,12 @@ public class MainActivity extends AppCompatActivity {
         }
 
         private void startDemoThread() {
-            demoThread = new Thread(() -> {
+            // The demo is a content job on the shared glasses executor, so it can never interleave
+            // with a chapter being sent, and sending a chapter cancels it
+            GlassesExecutor.get().submitContent(GlassesExecutor.Priority.DEMO_STEP, "demo", token -> {
                 // Always be sure we have control before any drawing starts
                 if(haveControlOfGlasses) {
+                    demoToken = token;
                     running.postValue(true);
                     try {
                         DemoCanvasLayout.runDemo(getApplication(), this, ultralite);
@@ -248,21 +230,28 @@ public class MainActivity extends AppCompatActivity {
                         DemoScrollNative.runDemo(getApplication(), this, ultralite);
                         DemoTapInput.runDemo(getApplication(), this, ultralite);
 
+                        LVGLImageCache.get().logStats();
+                        SliceCache.get().logStats();
                         // Always release control when finished drawing to the glasses
                         ultralite.releaseControl();
                         ultralite.sendNotification("Demo Success", "The demo is over");
                     } catch (Stop stop) {
-                        ultralite.releaseControl(); // Release when aborting, too.
-                        if (stop.error) {
-                            ultralite.sendNotification("Demo Error", "An error occurred during the demo");
+                        if (token.isCancelled()) {
+                            // Other content replaced the demo and now owns the glasses, so we
+                            // neither release control nor notify
+                            Log.d(TAG, "Demo cancelled");
                         } else {
-                            ultralite.sendNotification("Demo Control Lost", "The demo lost control of the glasses");
+                            ultralite.releaseControl(); // Release when aborting, too.
+                            if (stop.error) {
+                                ultralite.sendNotification("Demo Error", "An error occurred during the demo");
+                            } else {
+                                ultralite.sendNotification("Demo Control Lost", "The demo lost control of the glasses");
+                            }
                         }
                     }
                     running.postValue(false);
                 }
             });
-            demoThread.start();
         }
 
         // This is a convenience class to pause our thread and generate a Stop exception if the
@@ -273,10 +262,17 @@ public class MainActivity extends AppCompatActivity {
 
         // This is a convenience class to pause our thread and generate a Stop exception if the
         // user wants to abort
+        @Override
         public void pause(long ms) throws Stop {
-            SystemClock.sleep(ms);
-            if (!haveControlOfGlasses) {
-                // Throw Stop when we lose control
+            GlassesExecutor.CancellationToken token = demoToken;
+            try {
+                // Notifications queued on the executor are sent while we wait
+                GlassesExecutor.get().pause(token, ms);
+            } catch (InterruptedException e) {
+                throw new Stop(false);
+            }
+            if (!haveControlOfGlasses || token.isCancelled()) {
+                // Throw Stop when we lose control, or when other content replaces the demo
                 throw new Stop(false);
             }
         }
@@ -316,12 +312,11 @@ public class MainActivity extends AppCompatActivity {
      * @param resource Resource ID of a bitmap
      * @param singleBit True to render as single-bit (black and white) only. This is the smallest
      *                  and fastest way to send images. False for 2-bit per pixel.
-     * @return LVGLImage at the original bitmap dimensions
+     * @return LVGLImage at the original bitmap dimensions. Images are cached, so loading the same
+     *         one again is free.
      */
     static LVGLImage loadLVGLImage(Context context, int resource, boolean singleBit) {
-        BitmapDrawable drawable = (BitmapDrawable) ResourcesCompat.getDrawable(
-                context.getResources(), resource, context.getTheme());
         int colorSpace = singleBit ? LVGLImage.CF_INDEXED_1_BIT : LVGLImage.CF_INDEXED_2_BIT ;
-        return LVGLImage.fromBitmap(drawable.getBitmap(), colorSpace);
+        return LVGLImageCache.get().load(context, resource, colorSpace);
     }
 }
@@ -0,0 +1,117 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Paint;
+import android.graphics.Typeface;
+
+import com.vuzix.ultralite.UltraliteSDK;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Where the lines of a chapter page go on the canvas, planned from the font's metrics rather than
+ * fixed pixel positions.
+ *
+ * A line is as tall as the font, ascent to descent, and stays readable with a gap to the next line
+ * of at least {@link #MIN_LINE_GAP} of that height. The planner fits as many lines as the panel
+ * holds at that spacing between the margins, then shares them out: the canvas has at most
+ * {@link #MAX_TEXT_FIELDS} foreground text fields, and any further lines are drawn into one
+ * background image below the fields. When a {@link CanvasLayout.PageMode} cannot use every line
+ * that fits, the spare height widens the spacing, up to {@link #COMFORTABLE_LINE_GAP}.
+ *
+ * Lines are always {@link CanvasLayout#TEXT_FIELD_WIDTH} wide, so a plan never changes how the
+ * text is wrapped, only how many lines make a page.
+ */
+final class PageLayout {
+    // Per the canvas layout: up to 7 foreground text fields, plus the background
+    static final int MAX_TEXT_FIELDS = 7;
+    static final int LEFT = 20;
+    static final int TOP = 25;
+    static final int BOTTOM = 25;
+    static final float MIN_LINE_GAP = 0.2f;
+    static final float COMFORTABLE_LINE_GAP = 0.4f;
+
+    private static final Map<CanvasLayout.PageMode, PageLayout> planned = new EnumMap<>(CanvasLayout.PageMode.class);
+
+    final float fontSize;
+    final int lineHeight;
+    final int lineSpacing;
+    final int fieldLines;
+    final int backgroundLines;
+
+    private PageLayout(float fontSize, int lineHeight, int lineSpacing, int fieldLines, int backgroundLines) {
+        this.fontSize = fontSize;
+        this.lineHeight = lineHeight;
+        this.lineSpacing = lineSpacing;
+        this.fieldLines = fieldLines;
+        this.backgroundLines = backgroundLines;
+    }
+
+    /**
+     * @return the plan for {@code mode} at {@link CanvasLayout#GLASSES_FONT_SIZE}, measured once
+     */
+    static synchronized PageLayout forMode(CanvasLayout.PageMode mode) {
+        PageLayout layout = planned.get(mode);
+        if (layout == null) {
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setTypeface(Typeface.SANS_SERIF);
+            paint.setTextSize(CanvasLayout.GLASSES_FONT_SIZE);
+            Paint.FontMetrics metrics = paint.getFontMetrics();
+            layout = plan(CanvasLayout.GLASSES_FONT_SIZE, metrics.ascent, metrics.descent,
+                    mode == CanvasLayout.PageMode.BITMAP ? 0 : MAX_TEXT_FIELDS,
+                    mode == CanvasLayout.PageMode.TEXT_FIELDS ? 0 : Integer.MAX_VALUE);
+            android.util.Log.d("PageLayout", mode + ": " + layout);
+            planned.put(mode, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Plan the densest readable page for a font.
+     *
+     * @param ascent          the font's ascent, negative as Android reports it
+     * @param descent         the font's descent
+     * @param maxFieldLines   how many lines may be text fields
+     * @param maxBackgroundLines how many lines may be drawn on the background
+     */
+    static PageLayout plan(float fontSize, float ascent, float descent, int maxFieldLines, int maxBackgroundLines) {
+        int lineHeight = (int) Math.ceil(descent - ascent);
+        int usableHeight = UltraliteSDK.Canvas.HEIGHT - TOP - BOTTOM;
+        int minSpacing = (int) Math.ceil(lineHeight * (1 + MIN_LINE_GAP));
+        int capacity = Math.max(1, 1 + (usableHeight - lineHeight) / minSpacing);
+
+        int fieldLines = Math.min(capacity, maxFieldLines);
+        int backgroundLines = Math.min(capacity - fieldLines, maxBackgroundLines);
+        int lines = fieldLines + backgroundLines;
+        int spacing = minSpacing;
+        if (lines > 1) {
+            int comfortableSpacing = (int) Math.ceil(lineHeight * (1 + COMFORTABLE_LINE_GAP));
+            spacing = Math.max(minSpacing, Math.min(comfortableSpacing, (usableHeight - lineHeight) / (lines - 1)));
+        }
+        return new PageLayout(fontSize, lineHeight, spacing, fieldLines, backgroundLines);
+    }
+
+    int getLinesPerPage() {
+        return fieldLines + backgroundLines;
+    }
+
+    /**
+     * @return the top of line {@code index}
+     */
+    int lineTop(int index) {
+        return TOP + index * lineSpacing;
+    }
+
+    /**
+     * @return the top of the background image, which holds the lines after the text fields
+     */
+    int backgroundTop() {
+        return lineTop(fieldLines);
+    }
+
+    @Override
+    public String toString() {
+        return getLinesPerPage() + " lines (" + fieldLines + " fields, " + backgroundLines + " on the background), "
+                + lineHeight + " px high every " + lineSpacing + " px at " + fontSize + " px";
+    }
+}
@@ -0,0 +1,115 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.sample.text.Page;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Prepares the pages of upcoming chapters on a background thread while the current chapter is on
+ * the glasses.
+ *
+ * A producer thread reads each chapter from the {@link BookIndex} and splits it into {@link Page}s,
+ * then hands the whole chapter to a bounded queue. It stays at most {@link #CHAPTERS_AHEAD} chapters
+ * ahead of the reader, which caps memory, and the display side only ever takes chapters that are
+ * already prepared, so chapter boundaries cost no text work.
+ */
+class PagePrefetcher {
+    private static final String TAG = "PagePrefetcher";
+    static final int CHAPTERS_AHEAD = 2;
+
+    /**
+     * The prepared pages of one chapter. Chapters that fail to load come through with no pages.
+     */
+    static final class Chapter {
+        final int index;
+        final List<Page> pages;
+
+        Chapter(int index, List<Page> pages) {
+            this.index = index;
+            this.pages = pages;
+        }
+    }
+
+    // Marks the end of the requested chapters
+    private static final Chapter END = new Chapter(-1, Collections.emptyList());
+
+    private final BookIndex bookIndex;
+    private final int firstChapter;
+    private final int endChapter;
+    private final int linesPerPage;
+    private final BlockingQueue<Chapter> ready = new ArrayBlockingQueue<>(CHAPTERS_AHEAD);
+    private final Thread producer;
+
+    /**
+     * @param firstChapter the first chapter to prepare
+     * @param endChapter one past the last chapter to prepare
+     */
+    PagePrefetcher(BookIndex bookIndex, int firstChapter, int endChapter, int linesPerPage) {
+        this.bookIndex = bookIndex;
+        this.firstChapter = firstChapter;
+        this.endChapter = endChapter;
+        this.linesPerPage = linesPerPage;
+        producer = new Thread(this::produce, TAG);
+    }
+
+    void start() {
+        producer.start();
+    }
+
+    /**
+     * Wait for the next prepared chapter.
+     *
+     * @return the next chapter, or null once every requested chapter has been taken
+     */
+    Chapter take() throws InterruptedException {
+        Chapter chapter = ready.take();
+        if (chapter == END) {
+            // Leave the marker in place so later calls also see the end
+            ready.put(END);
+            return null;
+        }
+        return chapter;
+    }
+
+    /**
+     * Stop preparing chapters and drop the ones already prepared.
+     */
+    void close() {
+        producer.interrupt();
+        ready.clear();
+    }
+
+    private void produce() {
+        try {
+            for (int index = firstChapter; index < endChapter; index++) {
+                ready.put(prepare(index));
+            }
+            ready.put(END);
+        } catch (InterruptedException e) {
+            Log.d(TAG, "Prefetch stopped");
+        }
+    }
+
+    private Chapter prepare(int index) {
+        long start = System.nanoTime();
+        try {
+            BookIndex.ChapterContent content = bookIndex.readChapter(index);
+            long paginateStart = System.nanoTime();
+            Tracer.get().span(Tracer.Stage.INDEX_READ, start);
+            List<Page> pages = Page.paginate(index, content.text, content.lineBounds, linesPerPage);
+            Tracer.get().span(Tracer.Stage.PAGINATE, paginateStart);
+            Log.d(TAG, "Prepared chapter " + index + ": " + pages.size() + " pages in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            return new Chapter(index, pages);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return new Chapter(index, Collections.emptyList());
+        }
+    }
+}
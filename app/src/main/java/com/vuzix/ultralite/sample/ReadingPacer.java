@@ -0,0 +1,86 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.EventListener;
+import com.vuzix.ultralite.sample.text.Page;
+
+/**
+ * Decides how long each page stays on the glasses.
+ *
+ * The dwell time is the page's word count at the current words-per-minute rate, plus a fixed
+ * allowance for finding the start of the page, clamped to a sensible range. A tap on the glasses
+ * turns the page at once. When the reader taps before the page's time is up, the rate moves toward
+ * the speed they actually read at (an exponential moving average), so later pages get shorter.
+ *
+ * Register it with {@code UltraliteSDK.addEventListener} to receive taps.
+ */
+class ReadingPacer implements EventListener {
+    private static final String TAG = "ReadingPacer";
+    static final int DEFAULT_WORDS_PER_MINUTE = 250;
+    private static final int MIN_WORDS_PER_MINUTE = 80;
+    private static final int MAX_WORDS_PER_MINUTE = 800;
+    private static final long PAGE_OVERHEAD_MS = 1500;
+    private static final long MIN_DWELL_MS = 3000;
+    private static final long MAX_DWELL_MS = 60000;
+    // Weight of each observed reading speed in the moving average
+    private static final double SMOOTHING = 0.3;
+
+    private volatile double wordsPerMinute;
+    private volatile boolean skipRequested;
+
+    ReadingPacer(int wordsPerMinute) {
+        this.wordsPerMinute = clampRate(wordsPerMinute);
+    }
+
+    long dwellMillis(Page page) {
+        long readingMs = Math.round(page.wordCount * 60000.0 / wordsPerMinute);
+        return Math.max(MIN_DWELL_MS, Math.min(MAX_DWELL_MS, PAGE_OVERHEAD_MS + readingMs));
+    }
+
+    /**
+     * Wait while the reader reads {@code page}, which was just shown. Returns early on a tap or
+     * {@link #skip()}, and throws if {@code token} is cancelled while waiting.
+     *
+     * @return true if the page was skipped before its time was up
+     */
+    boolean awaitReader(GlassesExecutor.CancellationToken token, Page page) throws InterruptedException {
+        skipRequested = false;
+        long shownAt = System.nanoTime();
+        GlassesExecutor.get().pause(token, dwellMillis(page), () -> skipRequested);
+        if (token.isCancelled()) {
+            throw new InterruptedException("Cancelled");
+        }
+        if (!skipRequested) {
+            return false;
+        }
+        long readMs = (System.nanoTime() - shownAt) / 1_000_000;
+        if (page.wordCount > 0 && readMs > PAGE_OVERHEAD_MS) {
+            double observed = page.wordCount * 60000.0 / (readMs - PAGE_OVERHEAD_MS);
+            wordsPerMinute = clampRate(wordsPerMinute + SMOOTHING * (observed - wordsPerMinute));
+            Log.d(TAG, "Page turned after " + readMs + " ms, now pacing at " + Math.round(wordsPerMinute) + " wpm");
+        }
+        return true;
+    }
+
+    /**
+     * Turn the current page now.
+     */
+    void skip() {
+        skipRequested = true;
+        GlassesExecutor.get().wake();
+    }
+
+    @Override
+    public void onTap(int tapCount) {
+        skip();
+    }
+
+    int getWordsPerMinute() {
+        return (int) Math.round(wordsPerMinute);
+    }
+
+    private static double clampRate(double rate) {
+        return Math.max(MIN_WORDS_PER_MINUTE, Math.min(MAX_WORDS_PER_MINUTE, rate));
+    }
+}
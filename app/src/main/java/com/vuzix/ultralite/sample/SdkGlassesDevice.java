@@ -0,0 +1,188 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Point;
+
+import com.vuzix.ultralite.Anchor;
+import com.vuzix.ultralite.EventListener;
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.Layout;
+import com.vuzix.ultralite.TextAlignment;
+import com.vuzix.ultralite.TextWrapMode;
+import com.vuzix.ultralite.UltraliteColor;
+import com.vuzix.ultralite.UltraliteSDK;
+
+/**
+ * A {@link GlassesDevice} that passes every command straight to the SDK.
+ */
+class SdkGlassesDevice implements GlassesDevice {
+    private static SdkGlassesDevice instance;
+
+    private final UltraliteSDK ultralite;
+    private final UltraliteSDK.Canvas canvas;
+    private final UltraliteSDK.ScrollingTextView scrollingTextView;
+
+    private SdkGlassesDevice(UltraliteSDK ultralite) {
+        this.ultralite = ultralite;
+        this.canvas = ultralite.getCanvas();
+        this.scrollingTextView = ultralite.getScrollingTextView();
+    }
+
+    static synchronized GlassesDevice of(UltraliteSDK ultralite) {
+        if (instance == null || instance.ultralite != ultralite) {
+            instance = new SdkGlassesDevice(ultralite);
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar, boolean animateTaps, int maxTaps) {
+        return ultralite.setLayout(layout, screenTimeoutSecs, hideStatusBar, animateTaps, maxTaps);
+    }
+
+    @Override
+    public boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar) {
+        return ultralite.setLayout(layout, screenTimeoutSecs, hideStatusBar);
+    }
+
+    @Override
+    public void requestAcknowledgement(Runnable onAck) {
+        ultralite.requestAcknowledgement(onAck::run);
+    }
+
+    @Override
+    public void addEventListener(EventListener listener) {
+        ultralite.addEventListener(listener);
+    }
+
+    @Override
+    public void removeEventListener(EventListener listener) {
+        ultralite.removeEventListener(listener);
+    }
+
+    @Override
+    public int createText(String text, TextAlignment alignment, UltraliteColor color, Anchor anchor,
+                          int x, int y, int width, int height, TextWrapMode wrapMode, boolean visible) {
+        return canvas.createText(text, alignment, color, anchor, x, y, width, height, wrapMode, visible);
+    }
+
+    @Override
+    public boolean updateText(int id, String text) {
+        return canvas.updateText(id, text);
+    }
+
+    @Override
+    public boolean moveText(int id, Anchor anchor, int x, int y) {
+        return canvas.moveText(id, anchor, x, y);
+    }
+
+    @Override
+    public boolean setTextVisible(int id, boolean visible) {
+        return canvas.setTextVisible(id, visible);
+    }
+
+    @Override
+    public boolean removeText(int id) {
+        return canvas.removeText(id);
+    }
+
+    @Override
+    public int createImage(LVGLImage image, Anchor anchor) {
+        return canvas.createImage(image, anchor);
+    }
+
+    @Override
+    public boolean updateImage(int id, LVGLImage image) {
+        return canvas.updateImage(id, image);
+    }
+
+    @Override
+    public boolean moveImage(int id, int x, int y) {
+        return canvas.moveImage(id, x, y);
+    }
+
+    @Override
+    public boolean setImageVisible(int id, boolean visible) {
+        return canvas.setImageVisible(id, visible);
+    }
+
+    @Override
+    public boolean removeImage(int id) {
+        return canvas.removeImage(id);
+    }
+
+    @Override
+    public int createAnimation(LVGLImage[] images, Anchor anchor, int duration) {
+        return canvas.createAnimation(images, anchor, duration);
+    }
+
+    @Override
+    public boolean moveAnimation(int id, int x, int y) {
+        return canvas.moveAnimation(id, x, y);
+    }
+
+    @Override
+    public boolean setAnimationVisible(int id, boolean visible) {
+        return canvas.setAnimationVisible(id, visible);
+    }
+
+    @Override
+    public boolean removeAnimation(int id) {
+        return canvas.removeAnimation(id);
+    }
+
+    @Override
+    public void drawBackground(LVGLImage image, int x, int y) {
+        canvas.drawBackground(image, x, y);
+    }
+
+    @Override
+    public void drawBackground(LVGLImage image, Point[] coordinates) {
+        canvas.drawBackground(image, coordinates);
+    }
+
+    @Override
+    public void clearBackgroundRect(int x, int y, int width, int height) {
+        canvas.clearBackgroundRect(x, y, width, height);
+    }
+
+    @Override
+    public void clearBackgroundRect(int x, int y, int width, int height, UltraliteColor color) {
+        canvas.clearBackgroundRect(x, y, width, height, color);
+    }
+
+    @Override
+    public void clearBackground() {
+        canvas.clearBackground();
+    }
+
+    @Override
+    public void commit() {
+        canvas.commit();
+    }
+
+    @Override
+    public void commit(Runnable onProcessed) {
+        canvas.commit(onProcessed::run);
+    }
+
+    @Override
+    public void scrollLayoutConfig(int sliceHeight, int lowestLineShowing, int numberLinesShowing, int scrollTimeMs,
+                                   boolean autoScroll) {
+        scrollingTextView.scrollLayoutConfig(sliceHeight, lowestLineShowing, numberLinesShowing, scrollTimeMs, autoScroll);
+    }
+
+    @Override
+    public void sendScrollImage(LVGLImage image, int index, boolean scrollFirst) {
+        scrollingTextView.sendScrollImage(image, index, scrollFirst);
+    }
+
+    @Override
+    public void scrollNow() {
+        scrollingTextView.scrollNow();
+    }
+
+    @Override
+    public void clearScrollSlice(int index) {
+        scrollingTextView.clear(index);
+    }
+}
@@ -0,0 +1,384 @@
+package com.vuzix.ultralite.sample;
+
+import android.graphics.Point;
+
+import com.vuzix.ultralite.Anchor;
+import com.vuzix.ultralite.EventListener;
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.Layout;
+import com.vuzix.ultralite.TextAlignment;
+import com.vuzix.ultralite.TextWrapMode;
+import com.vuzix.ultralite.UltraliteColor;
+import com.vuzix.ultralite.UltraliteSDK;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Glasses that exist only in this process, for measuring the content pipeline without hardware.
+ *
+ * Every command goes into a queue of {@code queueDepth} commands, and the caller blocks while the
+ * queue is full, as it would behind a saturated Bluetooth link. One link thread serves the queue in
+ * order: each command takes {@code commandMs} plus its size at {@code bytesPerSecond}. Acks and
+ * commit callbacks are queued like any other command and run {@code ackLatencyMs} after they are
+ * served, on a separate thread, like the SDK's callbacks. Command sizes are estimates: the UTF-8
+ * length of any text plus a fixed overhead, and a fixed size for images.
+ *
+ * Every command is recorded with when it was sent and when it was served, so a run can be checked
+ * for command counts, bytes and throughput afterwards. {@link #tap} delivers taps to the event
+ * listeners, so paced readers can be driven too, and a scroll reports {@code onScrolled} like an
+ * ack, without waiting out the animation. The defaults are rough guesses at a Z100 link,
+ * not measurements.
+ */
+class SimulatedGlassesDevice implements GlassesDevice {
+    static final int DEFAULT_BYTES_PER_SECOND = 25_000;
+    static final long DEFAULT_COMMAND_MS = 2;
+    static final int DEFAULT_QUEUE_DEPTH = 64;
+    static final long DEFAULT_ACK_LATENCY_MS = 30;
+    static final int COMMAND_OVERHEAD_BYTES = 12;
+    // A full-width scroll slice at 2 bits per pixel
+    static final int DEFAULT_IMAGE_BYTES = UltraliteSDK.Canvas.WIDTH * 48 * 2 / 8;
+
+    /**
+     * One command as the simulated glasses received it.
+     */
+    static final class Command {
+        final String name;
+        final int bytes;
+        final long sentAtNanos;
+        volatile long servedAtNanos;
+        private final Runnable onServed;
+
+        Command(String name, int bytes, Runnable onServed) {
+            this.name = name;
+            this.bytes = bytes;
+            this.sentAtNanos = System.nanoTime();
+            this.onServed = onServed;
+        }
+    }
+
+    private final int bytesPerSecond;
+    private final long commandMs;
+    private final long ackLatencyMs;
+    private final BlockingQueue<Command> link;
+    // Every command in the order it was queued
+    private final List<Command> commands = new ArrayList<>();
+    // Held by senders from queueing a command until it is recorded, so the order is exact. Only
+    // senders wait for it, so reading the record never blocks behind a full link.
+    private final Object queueing = new Object();
+    private final Map<String, Integer> counts = new TreeMap<>();
+    private final List<EventListener> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ScheduledExecutorService callbacks;
+    private final Thread linkThread;
+    private long bytesSent;
+    private int maxQueued;
+
+    SimulatedGlassesDevice() {
+        this(DEFAULT_BYTES_PER_SECOND, DEFAULT_COMMAND_MS, DEFAULT_QUEUE_DEPTH, DEFAULT_ACK_LATENCY_MS);
+    }
+
+    SimulatedGlassesDevice(int bytesPerSecond, long commandMs, int queueDepth, long ackLatencyMs) {
+        this.bytesPerSecond = bytesPerSecond;
+        this.commandMs = commandMs;
+        this.ackLatencyMs = ackLatencyMs;
+        this.link = new ArrayBlockingQueue<>(queueDepth);
+        callbacks = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SimulatedGlasses-callbacks");
+            thread.setDaemon(true);
+            return thread;
+        });
+        linkThread = new Thread(this::serve, "SimulatedGlasses-link");
+        linkThread.setDaemon(true);
+        linkThread.start();
+    }
+
+    /**
+     * Stop the link, and the scheduler and canvas that were made for this device. Commands still
+     * queued are never served.
+     */
+    void close() {
+        LinkScheduler.release(this);
+        GlassesCanvas.release(this);
+        linkThread.interrupt();
+        callbacks.shutdownNow();
+    }
+
+    /**
+     * Deliver a tap to every event listener, as if the wearer tapped the glasses.
+     */
+    void tap(int tapCount) {
+        for (EventListener listener : listeners) {
+            listener.onTap(tapCount);
+        }
+    }
+
+    /**
+     * @return a copy of every command received so far, in order
+     */
+    List<Command> getCommands() {
+        synchronized (commands) {
+            return new ArrayList<>(commands);
+        }
+    }
+
+    /**
+     * @return how many times {@code name} (the method name, such as "updateText") was received
+     */
+    int count(String name) {
+        synchronized (commands) {
+            Integer count = counts.get(name);
+            return count != null ? count : 0;
+        }
+    }
+
+    long getBytesSent() {
+        synchronized (commands) {
+            return bytesSent;
+        }
+    }
+
+    /**
+     * @return the most commands that were ever waiting in the link queue at once
+     */
+    int getMaxQueued() {
+        synchronized (commands) {
+            return maxQueued;
+        }
+    }
+
+    /**
+     * @return bytes served per second, from the first command sent to the last one served
+     */
+    double getServedBytesPerSecond() {
+        long bytes = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (Command command : getCommands()) {
+            if (command.servedAtNanos != 0) {
+                bytes += command.bytes;
+                first = Math.min(first, command.sentAtNanos);
+                last = Math.max(last, command.servedAtNanos);
+            }
+        }
+        return last > first ? bytes * 1e9 / (last - first) : 0;
+    }
+
+    String summary() {
+        synchronized (commands) {
+            return String.format(Locale.US, "%d commands, %d bytes, served at %.0f B/s, at most %d queued, %s",
+                    commands.size(), bytesSent, getServedBytesPerSecond(), maxQueued, counts);
+        }
+    }
+
+    @Override
+    public boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar, boolean animateTaps, int maxTaps) {
+        return send("setLayout", 0, null);
+    }
+
+    @Override
+    public boolean setLayout(Layout layout, int screenTimeoutSecs, boolean hideStatusBar) {
+        return send("setLayout", 0, null);
+    }
+
+    @Override
+    public void requestAcknowledgement(Runnable onAck) {
+        send("requestAcknowledgement", 0, onAck);
+    }
+
+    @Override
+    public void addEventListener(EventListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeEventListener(EventListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public int createText(String text, TextAlignment alignment, UltraliteColor color, Anchor anchor,
+                          int x, int y, int width, int height, TextWrapMode wrapMode, boolean visible) {
+        return send("createText", textBytes(text), null) ? nextId.getAndIncrement() : -1;
+    }
+
+    @Override
+    public boolean updateText(int id, String text) {
+        return send("updateText", textBytes(text), null);
+    }
+
+    @Override
+    public boolean moveText(int id, Anchor anchor, int x, int y) {
+        return send("moveText", 0, null);
+    }
+
+    @Override
+    public boolean setTextVisible(int id, boolean visible) {
+        return send("setTextVisible", 0, null);
+    }
+
+    @Override
+    public boolean removeText(int id) {
+        return send("removeText", 0, null);
+    }
+
+    @Override
+    public int createImage(LVGLImage image, Anchor anchor) {
+        return send("createImage", DEFAULT_IMAGE_BYTES, null) ? nextId.getAndIncrement() : -1;
+    }
+
+    @Override
+    public boolean updateImage(int id, LVGLImage image) {
+        return send("updateImage", DEFAULT_IMAGE_BYTES, null);
+    }
+
+    @Override
+    public boolean moveImage(int id, int x, int y) {
+        return send("moveImage", 0, null);
+    }
+
+    @Override
+    public boolean setImageVisible(int id, boolean visible) {
+        return send("setImageVisible", 0, null);
+    }
+
+    @Override
+    public boolean removeImage(int id) {
+        return send("removeImage", 0, null);
+    }
+
+    @Override
+    public int createAnimation(LVGLImage[] images, Anchor anchor, int duration) {
+        return send("createAnimation", images.length * DEFAULT_IMAGE_BYTES, null) ? nextId.getAndIncrement() : -1;
+    }
+
+    @Override
+    public boolean moveAnimation(int id, int x, int y) {
+        return send("moveAnimation", 0, null);
+    }
+
+    @Override
+    public boolean setAnimationVisible(int id, boolean visible) {
+        return send("setAnimationVisible", 0, null);
+    }
+
+    @Override
+    public boolean removeAnimation(int id) {
+        return send("removeAnimation", 0, null);
+    }
+
+    @Override
+    public void drawBackground(LVGLImage image, int x, int y) {
+        send("drawBackground", DEFAULT_IMAGE_BYTES, null);
+    }
+
+    @Override
+    public void drawBackground(LVGLImage image, Point[] coordinates) {
+        send("drawBackground", DEFAULT_IMAGE_BYTES, null);
+    }
+
+    @Override
+    public void clearBackgroundRect(int x, int y, int width, int height) {
+        send("clearBackgroundRect", 0, null);
+    }
+
+    @Override
+    public void clearBackgroundRect(int x, int y, int width, int height, UltraliteColor color) {
+        send("clearBackgroundRect", 0, null);
+    }
+
+    @Override
+    public void clearBackground() {
+        send("clearBackground", 0, null);
+    }
+
+    @Override
+    public void commit() {
+        send("commit", 0, null);
+    }
+
+    @Override
+    public void commit(Runnable onProcessed) {
+        send("commit", 0, onProcessed);
+    }
+
+    @Override
+    public void scrollLayoutConfig(int sliceHeight, int lowestLineShowing, int numberLinesShowing, int scrollTimeMs,
+                                   boolean autoScroll) {
+        send("scrollLayoutConfig", 0, null);
+    }
+
+    @Override
+    public void sendScrollImage(LVGLImage image, int index, boolean scrollFirst) {
+        send("sendScrollImage", DEFAULT_IMAGE_BYTES, null);
+    }
+
+    @Override
+    public void scrollNow() {
+        send("scrollNow", 0, () -> {
+            for (EventListener listener : listeners) {
+                listener.onScrolled(false);
+            }
+        });
+    }
+
+    @Override
+    public void clearScrollSlice(int index) {
+        send("clearScrollSlice", 0, null);
+    }
+
+    private static int textBytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Queue a command, blocking while the link queue is full.
+     *
+     * @return false if the caller was interrupted before the command could be queued
+     */
+    private boolean send(String name, int payloadBytes, Runnable onServed) {
+        Command command = new Command(name, payloadBytes + COMMAND_OVERHEAD_BYTES, onServed);
+        synchronized (queueing) {
+            try {
+                link.put(command);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            synchronized (commands) {
+                commands.add(command);
+                counts.merge(name, 1, Integer::sum);
+                bytesSent += command.bytes;
+                maxQueued = Math.max(maxQueued, link.size());
+            }
+        }
+        return true;
+    }
+
+    private void serve() {
+        try {
+            while (true) {
+                Command command = link.take();
+                long serviceNanos = TimeUnit.MILLISECONDS.toNanos(commandMs) + command.bytes * 1_000_000_000L / bytesPerSecond;
+                TimeUnit.NANOSECONDS.sleep(serviceNanos);
+                command.servedAtNanos = System.nanoTime();
+                if (command.onServed != null) {
+                    callbacks.schedule(command.onServed, ackLatencyMs, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        }
+    }
+}
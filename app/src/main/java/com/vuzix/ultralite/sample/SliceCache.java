@@ -0,0 +1,147 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.UltraliteSDK;
+import com.vuzix.ultralite.utils.scroll.TextToImageSlicer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the images {@link TextToImageSlicer} renders, so showing the same text again in a SCROLL
+ * layout skips rasterization entirely.
+ *
+ * Entries hold every slice of one text and are keyed by the text, slice height and font size. The
+ * cache is bounded by an estimate of the slices' pixel data and evicts the least recently used text
+ * first. Hits, misses and the time spent slicing are kept for {@link #logStats()}.
+ *
+ * On a miss, {@link #open} still renders one slice at a time as the caller asks for it, so the
+ * first line goes out as soon as it would without the cache. The text is cached once its last
+ * slice has been rendered; a text abandoned part way is not cached.
+ */
+class SliceCache {
+    private static final String TAG = "SliceCache";
+    private static final int MAX_BYTES = 2 * 1024 * 1024;
+    // Slices span the display width; assume 2 bits per pixel for the size estimate
+    private static final int BITS_PER_PIXEL = 2;
+
+    private static SliceCache instance;
+
+    private final LruCache<String, LVGLImage[]> cache = new LruCache<String, LVGLImage[]>(MAX_BYTES) {
+        @Override
+        protected int sizeOf(String key, LVGLImage[] slices) {
+            int sliceHeight = Integer.parseInt(key.substring(0, key.indexOf('/')));
+            return Math.max(1, slices.length * UltraliteSDK.Canvas.WIDTH * BITS_PER_PIXEL / 8 * sliceHeight);
+        }
+    };
+    private long slicingNanos;
+
+    /**
+     * The slices of one text, in order, handed out one at a time like {@link TextToImageSlicer}.
+     */
+    interface Slices {
+        boolean hasMoreSlices();
+
+        LVGLImage getNextSlice();
+    }
+
+    static synchronized SliceCache get() {
+        if (instance == null) {
+            instance = new SliceCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the slices of {@code text}: from the cache if it has them, otherwise rendered as they
+     * are taken and cached once the last one is
+     */
+    Slices open(String text, int sliceHeight, int fontSize) {
+        String key = sliceHeight + "/" + fontSize + "/" + text;
+        LVGLImage[] cached = cache.get(key);
+        if (cached != null) {
+            return new Slices() {
+                private int next;
+
+                @Override
+                public boolean hasMoreSlices() {
+                    return next < cached.length;
+                }
+
+                @Override
+                public LVGLImage getNextSlice() {
+                    return cached[next++];
+                }
+            };
+        }
+        TextToImageSlicer slicer = new TextToImageSlicer(text, sliceHeight, fontSize);
+        return new Slices() {
+            private final List<LVGLImage> sliced = new ArrayList<>();
+            private long elapsed;
+            private boolean stored;
+
+            @Override
+            public boolean hasMoreSlices() {
+                if (slicer.hasMoreSlices()) {
+                    return true;
+                }
+                if (!stored) {
+                    stored = true;
+                    store(key, text, sliced.toArray(new LVGLImage[0]), elapsed);
+                }
+                return false;
+            }
+
+            @Override
+            public LVGLImage getNextSlice() {
+                long start = System.nanoTime();
+                LVGLImage slice = slicer.getNextSlice();
+                elapsed += System.nanoTime() - start;
+                sliced.add(slice);
+                return slice;
+            }
+        };
+    }
+
+    /**
+     * @return every slice of {@code text}, in order, as {@link TextToImageSlicer} would produce them
+     */
+    LVGLImage[] slices(String text, int sliceHeight, int fontSize) {
+        Slices source = open(text, sliceHeight, fontSize);
+        List<LVGLImage> slices = new ArrayList<>();
+        while (source.hasMoreSlices()) {
+            slices.add(source.getNextSlice());
+        }
+        return slices.toArray(new LVGLImage[0]);
+    }
+
+    /**
+     * @return the first slice of {@code text}, for prompts that fit on one line, or null if the
+     * text renders to no slices at all, as empty text does
+     */
+    LVGLImage firstSlice(String text, int sliceHeight, int fontSize) {
+        LVGLImage[] slices = slices(text, sliceHeight, fontSize);
+        return slices.length > 0 ? slices[0] : null;
+    }
+
+    private void store(String key, String text, LVGLImage[] slices, long elapsed) {
+        synchronized (this) {
+            slicingNanos += elapsed;
+        }
+        cache.put(key, slices);
+        Log.d(TAG, "Sliced " + text.length() + " chars into " + slices.length + " slices in " + elapsed / 1000 + " us");
+    }
+
+    void logStats() {
+        long nanos;
+        synchronized (this) {
+            nanos = slicingNanos;
+        }
+        Log.d(TAG, cache.hitCount() + " hits, " + cache.missCount() + " misses, " + nanos / 1_000_000
+                + " ms slicing, " + cache.size() + "/" + cache.maxSize() + " bytes cached, "
+                + cache.evictionCount() + " evictions");
+    }
+}
@@ -1,18 +1,26 @@
 package com.vuzix.ultralite.sample;
 
 import android.content.Context;
+import com.vuzix.ultralite.sample.text.LogSampler;
 import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 import org.xmlpull.v1.XmlPullParserFactory;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 public class TocParser {
-    public static List<ChapterItem> parseToc(Context context) {
+    // The TOC has an anchor per section; only a sample is logged unless in verbose mode
+    private static final LogSampler ANCHORS_LOGGED = new LogSampler(20);
+
+    /**
+     * @throws IOException if the TOC cannot be read or parsed, rather than returning part of it
+     */
+    public static List<ChapterItem> parseToc(Context context) throws IOException {
         List<ChapterItem> chapters = new ArrayList<>();
-        try {
-            android.util.Log.d("TocParser", "Opening toc.xhtml");
-            InputStream is = context.getAssets().open("alice-xhtml/toc.xhtml");
+        android.util.Log.d("TocParser", "Opening toc.xhtml");
+        try (InputStream is = context.getAssets().open(BookIndex.BOOK_ASSET_DIR + "/toc.xhtml")) {
             XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
             XmlPullParser parser = factory.newPullParser();
             parser.setInput(is, "UTF-8");
@@ -24,7 +32,9 @@ public class TocParser {
                     if ("a".equals(tagName)) {
                         filePath = parser.getAttributeValue(null, "href");
                         title = parser.nextText();
-                        android.util.Log.d("TocParser", "Found <a>: title=" + title + ", filePath=" + filePath);
+                        if (ANCHORS_LOGGED.sample(Logs.LOGCAT, "TocParser")) {
+                            android.util.Log.d("TocParser", "Found <a>: title=" + title + ", filePath=" + filePath);
+                        }
                         if (filePath != null && title != null && filePath.contains(".xhtml") && title.startsWith("CHAPTER")) {
                             chapters.add(new ChapterItem(title, filePath));
                         }
@@ -32,10 +42,9 @@ public class TocParser {
                 }
                 eventType = parser.next();
             }
-            is.close();
             android.util.Log.d("TocParser", "Total chapters found: " + chapters.size());
-        } catch (Exception e) {
-            android.util.Log.e("TocParser", "Error parsing toc.xhtml", e);
+        } catch (XmlPullParserException e) {
+            throw new IOException("Malformed toc.xhtml", e);
         }
         return chapters;
     }
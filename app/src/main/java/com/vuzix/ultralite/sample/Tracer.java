@@ -0,0 +1,155 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Times the stages between asking for content and seeing it on the glasses.
+ *
+ * A trace starts when the user asks for a send, and every {@link Stage} timed while it is open is
+ * recorded as a span under its id. Spans timed outside a trace, such as building the book index on
+ * first launch, are recorded under trace 0. The most recent {@link #CAPACITY} spans are kept in a
+ * ring buffer that {@link #dump} writes to the log, and every span also goes into a per-stage
+ * {@link LatencyHistogram} for {@link #logSummary()}.
+ *
+ * Timing a stage costs two {@code System.nanoTime()} calls and a short synchronized block, so the
+ * tracer is always on. Spans may be recorded from any thread.
+ */
+class Tracer {
+    private static final String TAG = "Tracer";
+    static final int CAPACITY = 1024;
+
+    enum Stage {
+        // Opening the book index, which parses the TOC when there is no index yet
+        TOC_LOOKUP,
+        // Reading a chapter's text and boundaries back from the index
+        INDEX_READ,
+        // Loading and extracting chapter XHTML, which stream together; only when building the index
+        XHTML_EXTRACT,
+        CHUNK,
+        WRAP,
+        PAGINATE,
+        // setLayout and the round trip confirming it
+        SET_LAYOUT,
+        // Staging the first page and handing its commit to the link
+        FIRST_COMMIT,
+        // From the first commit to its ack
+        ACK,
+        // From the request to the ack of the first page: the whole time to first page
+        FIRST_PAGE
+    }
+
+    private static Tracer instance;
+
+    // Ring buffer of spans, oldest overwritten first
+    private final int[] traceIds = new int[CAPACITY];
+    private final Stage[] stages = new Stage[CAPACITY];
+    private final long[] starts = new long[CAPACITY];
+    private final long[] durations = new long[CAPACITY];
+    private int next;
+    private int size;
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+
+    private int lastTraceId;
+    private volatile int currentTrace;
+    private volatile long currentTraceStart;
+
+    private Tracer() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    static synchronized Tracer get() {
+        if (instance == null) {
+            instance = new Tracer();
+        }
+        return instance;
+    }
+
+    /**
+     * Open a new trace, ending any open one. Spans recorded from now on belong to it.
+     *
+     * @return the id of the trace
+     */
+    synchronized int beginTrace(String name) {
+        int id = ++lastTraceId;
+        currentTraceStart = System.nanoTime();
+        currentTrace = id;
+        Log.d(TAG, "Trace " + id + ": " + name);
+        return id;
+    }
+
+    /**
+     * If trace {@code id} is still open, record its {@link Stage#FIRST_PAGE} span and close it.
+     */
+    synchronized void endTrace(int id) {
+        if (currentTrace != id || id == 0) {
+            return;
+        }
+        record(Stage.FIRST_PAGE, currentTraceStart, System.nanoTime());
+        currentTrace = 0;
+    }
+
+    /**
+     * @return the open trace, or 0
+     */
+    int currentTrace() {
+        return currentTrace;
+    }
+
+    /**
+     * Record a span for {@code stage} from {@code startNanos} until now.
+     */
+    void span(Stage stage, long startNanos) {
+        long end = System.nanoTime();
+        synchronized (this) {
+            record(stage, startNanos, end);
+        }
+    }
+
+    /**
+     * Log the spans in the ring buffer for one trace, oldest first, with their start relative to
+     * the trace's first span.
+     */
+    synchronized void dump(int traceId) {
+        long origin = Long.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            int slot = (next - size + i + CAPACITY) % CAPACITY;
+            if (traceIds[slot] == traceId) {
+                origin = Math.min(origin, starts[slot]);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = (next - size + i + CAPACITY) % CAPACITY;
+            if (traceIds[slot] == traceId) {
+                Log.d(TAG, String.format(Locale.US, "Trace %d %-13s at +%.1fms took %.1fms", traceId,
+                        stages[slot], (starts[slot] - origin) / 1e6, durations[slot] / 1e6));
+            }
+        }
+    }
+
+    /**
+     * Log percentiles for every stage that has been timed.
+     */
+    synchronized void logSummary() {
+        for (Map.Entry<Stage, LatencyHistogram> entry : histograms.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                Log.d(TAG, entry.getKey() + ": " + entry.getValue().summary());
+            }
+        }
+    }
+
+    private void record(Stage stage, long start, long end) {
+        traceIds[next] = currentTrace;
+        stages[next] = stage;
+        starts[next] = start;
+        durations[next] = end - start;
+        next = (next + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        histograms.get(stage).recordNanos(end - start);
+    }
+}
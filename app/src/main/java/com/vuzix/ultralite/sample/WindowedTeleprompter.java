@@ -0,0 +1,127 @@
+package com.vuzix.ultralite.sample;
+
+import android.util.Log;
+
+import com.vuzix.ultralite.LVGLImage;
+import com.vuzix.ultralite.Layout;
+import com.vuzix.ultralite.UltraliteSDK;
+import com.vuzix.ultralite.utils.scroll.TextToImageSlicer;
+
+import java.util.ArrayDeque;
+
+/**
+ * A teleprompter for text of any length, built on the native SCROLL layout.
+ *
+ * {@code AutoScroller} is given its whole text up front, so a book chapter would be sliced into
+ * images all at once. This class pulls lines from a {@link LineSource} instead, and keeps only
+ * {@code lookahead} slices ready ahead of the visible window. Once a slice is sent we drop it; the
+ * glasses keep the visible lines and the slice scrolls off by itself. Memory therefore stays flat
+ * no matter how long the text is.
+ *
+ * Lines should already fit the display width (as the book index wraps them); a line that still
+ * needs more than one slice is sent as several. Slices and scrolls go out through the
+ * {@link LinkScheduler}, in order with everything else sent to the device.
+ */
+class WindowedTeleprompter {
+    private static final String TAG = "WindowedTeleprompter";
+
+    /**
+     * Supplies the text one display line at a time.
+     */
+    interface LineSource {
+        /**
+         * @return the next line, or null at the end of the text
+         */
+        String nextLine();
+    }
+
+    /**
+     * A source over pre-wrapped lines, given as {@code start, end} offset pairs into {@code text}.
+     * Each line is copied out of the text only when it is asked for.
+     */
+    static LineSource chapterLines(CharSequence text, int[] lineBounds) {
+        return new LineSource() {
+            private int line;
+
+            @Override
+            public String nextLine() {
+                if (2 * line >= lineBounds.length) {
+                    return null;
+                }
+                String next = text.subSequence(lineBounds[2 * line], lineBounds[2 * line + 1]).toString();
+                line++;
+                return next;
+            }
+        };
+    }
+
+    private final GlassesDevice device;
+    private final LinkScheduler scheduler;
+    private final int sliceHeight;
+    private final int sliceBytes;
+    private final int fontSize;
+    private final int numberLinesShowing;
+    private final int lookahead;
+    private final ArrayDeque<LVGLImage> ahead = new ArrayDeque<>();
+    private boolean sourceDone;
+
+    /**
+     * @param lookahead how many slices to keep ready to send
+     */
+    WindowedTeleprompter(GlassesDevice device, int sliceHeight, int fontSize, int numberLinesShowing, int lookahead) {
+        this.device = device;
+        this.scheduler = LinkScheduler.get(device);
+        this.sliceHeight = sliceHeight;
+        // Slices span the display width at 2 bits per pixel
+        this.sliceBytes = UltraliteSDK.Canvas.WIDTH * sliceHeight * 2 / 8;
+        this.fontSize = fontSize;
+        this.numberLinesShowing = numberLinesShowing;
+        this.lookahead = lookahead;
+    }
+
+    /**
+     * Scroll the whole source across the glasses, one new line every {@code lineIntervalMs}.
+     * Slicing for the next lines happens within each interval, so it does not slow the scroll.
+     */
+    void run(LineSource source, long lineIntervalMs, GlassesExecutor.CancellationToken token) throws InterruptedException {
+        // The layout is sent straight to the device, so must not overtake queued commands
+        scheduler.awaitSent();
+        device.setLayout(Layout.SCROLL, 0, true, true, 0);
+        // Lines take a third of the interval to scroll into place
+        device.scrollLayoutConfig(sliceHeight, 0, numberLinesShowing, (int) (lineIntervalMs / 3), false);
+
+        int slicesSent = 0;
+        fill(source);
+        while (!ahead.isEmpty() && !token.isCancelled()) {
+            long deadline = System.nanoTime() / 1_000_000 + lineIntervalMs;
+            // The previous bottom line moves up one position as this one becomes the new bottom
+            LVGLImage slice = ahead.poll();
+            scheduler.submit(null, sliceBytes, () -> device.sendScrollImage(slice, 0, true));
+            slicesSent++;
+            fill(source);
+            GlassesExecutor.get().pause(token, Math.max(0, deadline - System.nanoTime() / 1_000_000));
+        }
+        Log.d(TAG, "Sent " + slicesSent + " slices, keeping at most " + lookahead + " ready ahead");
+        if (!token.isCancelled()) {
+            // Let the last lines scroll off before leaving the layout
+            for (int i = 0; i < numberLinesShowing && !token.isCancelled(); i++) {
+                scheduler.submit(null, 0, device::scrollNow);
+                GlassesExecutor.get().pause(token, lineIntervalMs);
+            }
+        }
+    }
+
+    private void fill(LineSource source) {
+        while (ahead.size() < lookahead && !sourceDone) {
+            String line = source.nextLine();
+            if (line == null) {
+                sourceDone = true;
+                return;
+            }
+            TextToImageSlicer slicer = new TextToImageSlicer(line, sliceHeight, fontSize);
+            while (slicer.hasMoreSlices()) {
+                ahead.add(slicer.getNextSlice());
+            }
+        }
+    }
+}
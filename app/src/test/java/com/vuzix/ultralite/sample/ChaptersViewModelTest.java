@@ -0,0 +1,95 @@
+package com.vuzix.ultralite.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.vuzix.ultralite.sample.text.Page;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chapters sent the way {@link ChaptersViewModel} sends them, to a {@link SimulatedGlassesDevice}
+ * on a link slow enough that the pages wait for it, with the wearer tapping through every page.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class ChaptersViewModelTest {
+    private static final int LINK_BYTES_PER_SECOND = 2_000;
+    private static final int CHAPTERS = 2;
+    private static final int PAGES_PER_CHAPTER = 4;
+
+    private SimulatedGlassesDevice glasses;
+    private Thread wearer;
+
+    @Before
+    public void setUp() {
+        glasses = new SimulatedGlassesDevice(LINK_BYTES_PER_SECOND, SimulatedGlassesDevice.DEFAULT_COMMAND_MS,
+                SimulatedGlassesDevice.DEFAULT_QUEUE_DEPTH, SimulatedGlassesDevice.DEFAULT_ACK_LATENCY_MS);
+        // Turn each page as soon as it is shown
+        wearer = new Thread(() -> {
+            try {
+                while (true) {
+                    glasses.tap(1);
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException e) {
+                // Send over
+            }
+        });
+        wearer.start();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        wearer.interrupt();
+        wearer.join();
+        glasses.close();
+    }
+
+    @Test
+    public void textFieldPagesKeepTheLinkBusy() throws InterruptedException {
+        int fields = PageLayout.forMode(CanvasLayout.PageMode.TEXT_FIELDS).fieldLines;
+        ArrayDeque<PagePrefetcher.Chapter> chapters = new ArrayDeque<>();
+        int lineBytes = 0;
+        for (int c = 0; c < CHAPTERS; c++) {
+            List<Page> pages = new ArrayList<>();
+            for (int p = 0; p < PAGES_PER_CHAPTER; p++) {
+                String[] lines = new String[fields];
+                for (int i = 0; i < fields; i++) {
+                    lines[i] = "Chapter " + c + ", page " + p + ", line " + i + " of the text";
+                    lineBytes += lines[i].length();
+                }
+                pages.add(new Page(c, lines));
+            }
+            chapters.add(new PagePrefetcher.Chapter(c, pages));
+        }
+        List<Integer> shown = new ArrayList<>();
+
+        ChaptersViewModel.showChapters(glasses, chapters::poll, CanvasLayout.PageMode.TEXT_FIELDS,
+                ReadingPacer.DEFAULT_WORDS_PER_MINUTE, new GlassesExecutor.CancellationToken(), shown::add);
+
+        int pages = CHAPTERS * PAGES_PER_CHAPTER;
+        assertEquals(Arrays.asList(0, 1), shown);
+        assertEquals(1, glasses.count("setLayout"));
+        assertEquals(fields, glasses.count("createText"));
+        assertEquals(fields, glasses.count("removeText"));
+        // Every line of every page differs from the one before it
+        assertEquals(pages * fields, glasses.count("updateText"));
+        // The reset, each page unless merged with the next while queued, and the cleanup
+        int commits = glasses.count("commit");
+        assertTrue(glasses.summary(), commits >= 3 && commits <= pages + 2);
+        assertTrue(glasses.summary(), glasses.getBytesSent() >= lineBytes);
+        // Commits are pipelined, so the link is not left idle waiting for each page's ack
+        assertTrue(glasses.summary(), glasses.getServedBytesPerSecond() > LINK_BYTES_PER_SECOND * 0.6);
+    }
+}
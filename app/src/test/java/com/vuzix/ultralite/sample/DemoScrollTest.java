@@ -0,0 +1,95 @@
+package com.vuzix.ultralite.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The scroll layout demos run against {@link SimulatedGlassesDevice} without pausing between
+ * steps, so they send as fast as the link scheduler lets them.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class DemoScrollTest {
+    private static final MainActivity.DemoPacer NO_PAUSES = ms -> { };
+
+    private Context context;
+    private SimulatedGlassesDevice glasses;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        glasses = new SimulatedGlassesDevice();
+    }
+
+    @After
+    public void tearDown() {
+        glasses.close();
+    }
+
+    @Test
+    public void nativeScrollSendsEverySliceWithoutFloodingTheLink() throws Exception {
+        DemoScrollNative.runDemo(context, NO_PAUSES, glasses);
+        LinkScheduler.get(glasses).drain();
+
+        int slices = SliceCache.get().slices(context.getString(R.string.scroll_layout_native_text),
+                DemoScrollNative.sliceHeight, DemoScrollNative.fontSize).length;
+        assertEquals(1, glasses.count("setLayout"));
+        assertEquals(2, glasses.count("scrollLayoutConfig"));
+        assertEquals(slices, glasses.count("sendScrollImage"));
+        assertEquals(1, glasses.count("scrollNow"));
+        assertEquals(1, glasses.count("clearScrollSlice"));
+        // The scheduler hands the SDK no more than the link drains within its lag budget, which
+        // is less than a slice here, so no command waits behind more than one slice
+        long sliceNanos = TimeUnit.MILLISECONDS.toNanos(SimulatedGlassesDevice.DEFAULT_COMMAND_MS)
+                + SimulatedGlassesDevice.DEFAULT_IMAGE_BYTES * 1_000_000_000L / SimulatedGlassesDevice.DEFAULT_BYTES_PER_SECOND;
+        for (SimulatedGlassesDevice.Command command : glasses.getCommands()) {
+            long lag = command.servedAtNanos - command.sentAtNanos;
+            assertTrue(command.name + " waited " + lag / 1_000_000 + " ms", lag < 2 * sliceNanos);
+        }
+        assertTrue(glasses.summary(), glasses.getServedBytesPerSecond() > SimulatedGlassesDevice.DEFAULT_BYTES_PER_SECOND * 0.5);
+    }
+
+    @Test
+    public void tapInputAnswersEachTap() throws Exception {
+        // Keep tapping once, then twice, until the demo has seen a double tap
+        Thread wearer = new Thread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    glasses.tap(1);
+                    Thread.sleep(20);
+                    glasses.tap(2);
+                    Thread.sleep(20);
+                }
+            } catch (InterruptedException e) {
+                // Demo over
+            }
+        });
+        wearer.start();
+        try {
+            DemoTapInput.runDemo(context, NO_PAUSES, glasses);
+        } finally {
+            wearer.interrupt();
+            wearer.join();
+        }
+        LinkScheduler.get(glasses).drain();
+
+        assertEquals(1, glasses.count("setLayout"));
+        assertEquals(1, glasses.count("scrollNow"));
+        // The instructions, two per single tap, and the double tap
+        int slices = glasses.count("sendScrollImage");
+        assertTrue(glasses.summary(), slices >= 2 && slices % 2 == 0);
+        assertTrue(glasses.summary(), glasses.getBytesSent() >= (long) slices * SimulatedGlassesDevice.DEFAULT_IMAGE_BYTES);
+    }
+}
@@ -0,0 +1,54 @@
+package com.vuzix.ultralite.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Live text fed to {@link SimulatedGlassesDevice} faster than its link drains it, checked by what
+ * reached the glasses and how fast.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class LiveTextFeederTest {
+    private static final int LINK_BYTES_PER_SECOND = 30_000;
+    // Longer than LinkScheduler.MAX_LAG_MS, so the scheduler has to keep a round trip in flight
+    private static final long ACK_LATENCY_MS = 400;
+    private static final long FEED_MS = 3000;
+
+    private SimulatedGlassesDevice glasses;
+
+    @After
+    public void tearDown() {
+        glasses.close();
+    }
+
+    @Test
+    public void revisionsKeepTheLinkBusyAndOnlyTheLatestIsSent() throws InterruptedException {
+        glasses = new SimulatedGlassesDevice(LINK_BYTES_PER_SECOND, SimulatedGlassesDevice.DEFAULT_COMMAND_MS,
+                SimulatedGlassesDevice.DEFAULT_QUEUE_DEPTH, ACK_LATENCY_MS);
+        LiveTextFeeder feeder = new LiveTextFeeder(glasses, 48, 35, 1, 3);
+        int updates = 0;
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FEED_MS);
+        while (System.nanoTime() < end) {
+            // Like a recognizer, guess each word before settling on it
+            feeder.append("wrod ");
+            feeder.replaceLast(5, "word ");
+            updates += 2;
+        }
+        LinkScheduler.get(glasses).drain();
+
+        assertEquals(1, glasses.count("scrollLayoutConfig"));
+        int slices = glasses.count("sendScrollImage");
+        assertTrue(slices + " slices for " + updates + " updates", slices > 0 && slices < updates / 2);
+        // With less than a round trip of slices in flight the link would idle for most of each one
+        assertTrue(glasses.summary(), glasses.getServedBytesPerSecond() > LINK_BYTES_PER_SECOND * 0.6);
+    }
+}
@@ -0,0 +1,137 @@
+package com.vuzix.ultralite.sample;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.vuzix.ultralite.Anchor;
+import com.vuzix.ultralite.TextAlignment;
+import com.vuzix.ultralite.TextWrapMode;
+import com.vuzix.ultralite.UltraliteColor;
+import com.vuzix.ultralite.sample.text.Page;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pages and scheduled commands sent to {@link SimulatedGlassesDevice}, checked by what reached it.
+ */
+@RunWith(RobolectricTestRunner.class)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class PageSessionTest {
+    private static final long TIMEOUT_MS = 5000;
+
+    private SimulatedGlassesDevice glasses;
+
+    @Before
+    public void setUp() {
+        glasses = new SimulatedGlassesDevice();
+    }
+
+    @After
+    public void tearDown() {
+        glasses.close();
+    }
+
+    @Test
+    public void textFieldPagesSendOnlyChangedLines() throws InterruptedException {
+        int fields = PageLayout.forMode(CanvasLayout.PageMode.TEXT_FIELDS).fieldLines;
+        String[] first = new String[fields];
+        for (int i = 0; i < fields; i++) {
+            first[i] = "Line " + i + " of the first page";
+        }
+        String[] second = first.clone();
+        second[1] = "The only line that changed";
+
+        CanvasLayout.PageSession session = CanvasLayout.PageSession.open(glasses, ReadingPacer.DEFAULT_WORDS_PER_MINUTE);
+        session.showPage(new Page(0, first));
+        // Wait for each commit to go out, so it is not merged with the next page's
+        awaitCount("commit", 1);
+        session.showPage(new Page(0, second));
+        awaitCount("commit", 2);
+        // A short last page blanks the fields it does not fill
+        session.showPage(new Page(0, new String[] {"The end"}));
+        session.close();
+
+        assertEquals(1, glasses.count("setLayout"));
+        assertEquals(fields, glasses.count("createText"));
+        assertEquals(fields + 1 + fields, glasses.count("updateText"));
+        assertEquals(fields, glasses.count("removeText"));
+        // One per page and one for the cleanup
+        assertEquals(4, glasses.count("commit"));
+    }
+
+    @Test
+    public void cleanupIsSentAfterTheLastPage() throws InterruptedException {
+        CanvasLayout.PageSession session = CanvasLayout.PageSession.open(glasses, ReadingPacer.DEFAULT_WORDS_PER_MINUTE);
+        session.showPage(new Page(0, new String[] {"Only line"}));
+        // Removing the fields goes straight to the device while the page's commit may be queued
+        session.close();
+
+        // Acks are requested whenever the scheduler sent something; only the canvas order matters
+        List<String> names = commandNames();
+        names.removeAll(Collections.singleton("requestAcknowledgement"));
+        int firstRemove = names.indexOf("removeText");
+        assertTrue(names.toString(), firstRemove > 0);
+        assertEquals(names.toString(), "commit", names.get(firstRemove - 1));
+        assertTrue(names.toString(), names.lastIndexOf("updateText") < firstRemove);
+        assertEquals(names.toString(), "commit", names.get(names.size() - 1));
+    }
+
+    @Test
+    public void scheduledCommitSendsWhatWasStagedWhenIssued() {
+        GlassesCanvas canvas = GlassesCanvas.get(glasses);
+        int id = canvas.createText("", TextAlignment.LEFT, UltraliteColor.WHITE, Anchor.TOP_LEFT,
+                0, 0, 100, 30, TextWrapMode.WRAP, true);
+        canvas.updateText(id, "First page");
+        GlassesCanvas.StagedCommit staged = canvas.stage(null);
+        // The next page is staged before the scheduler gets round to sending the first
+        canvas.updateText(id, "Second page");
+        canvas.commit(staged);
+        assertEquals(1, glasses.count("updateText"));
+        // Sending a commit twice, as when a merged commit was already taken, sends nothing more
+        canvas.commit(staged);
+        assertEquals(1, glasses.count("commit"));
+
+        canvas.commit();
+        assertEquals(2, glasses.count("updateText"));
+        assertEquals(2, glasses.count("commit"));
+    }
+
+    @Test
+    public void schedulerAcksCommandsInGroups() throws InterruptedException {
+        LinkScheduler scheduler = LinkScheduler.get(glasses);
+        for (int i = 0; i < 50; i++) {
+            scheduler.submit(null, 20, () -> glasses.updateText(1, "line"));
+        }
+        scheduler.drain();
+
+        assertEquals(50, glasses.count("updateText"));
+        int acks = glasses.count("requestAcknowledgement");
+        assertTrue(acks + " acks for 50 commands", acks <= 5);
+    }
+
+    private List<String> commandNames() {
+        List<String> names = new ArrayList<>();
+        for (SimulatedGlassesDevice.Command command : glasses.getCommands()) {
+            names.add(command.name);
+        }
+        return names;
+    }
+
+    private void awaitCount(String name, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (glasses.count(name) < count) {
+            assertTrue("Timed out waiting for " + count + " " + name + ", got " + commandNames(),
+                    System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
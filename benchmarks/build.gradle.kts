@@ -0,0 +1,25 @@
+// Pure-JVM JMH benchmarks for the text pipeline. Run with
+//   ./gradlew :benchmarks:jmh
+// Results go to build/results/jmh/; see baseline-results/README.md for comparing them.
+plugins {
+    java
+    id("me.champeau.jmh")
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    implementation(project(":text-engine"))
+    // Android provides XmlPullParser; on the JVM kxml2 is the same parser Android ships
+    implementation("net.sf.kxml:kxml2:2.3.0")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgsAppend.add("-Dbenchmarks.bookDir=${rootDir}/app/src/main/assets/alice-xhtml")
+}
@@ -0,0 +1,121 @@
+package com.vuzix.ultralite.sample.benchmarks;
+
+import com.vuzix.ultralite.sample.text.AdvanceTable;
+import com.vuzix.ultralite.sample.text.ChapterPaginator;
+import com.vuzix.ultralite.sample.text.LineBreaker;
+import com.vuzix.ultralite.sample.text.ParagraphExtractor;
+import com.vuzix.ultralite.sample.text.TextLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The inputs every benchmark runs over, and the app's text pipeline as it is set up on the phone.
+ *
+ * The bundled book is read from the directory in the {@code benchmarks.bookDir} system property,
+ * which the Gradle build sets. The synthetic book repeats the bundled paragraphs into chapters of
+ * about {@link #SYNTHETIC_CHAPTER_BYTES}, the size of a bundled chapter, until there are
+ * {@link #SYNTHETIC_BOOK_BYTES} of them, to show how each stage scales with a longer book.
+ */
+final class Book {
+    static final int SYNTHETIC_BOOK_BYTES = 10 * 1024 * 1024;
+    static final int SYNTHETIC_CHAPTER_BYTES = 16 * 1024;
+    static final int LINES_PER_PAGE = 6;
+    // The app wraps against 600 px at a 30 px font; Android font metrics are not available on the
+    // JVM, so every character gets the average advance of that font instead
+    static final float LINE_WIDTH = 600f;
+    static final float AVERAGE_ADVANCE = 14f;
+    static final ChapterPaginator PAGINATOR = new ChapterPaginator(
+            new LineBreaker(AdvanceTable.monospace(AVERAGE_ADVANCE), LINE_WIDTH), LINES_PER_PAGE, TextLog.NONE);
+
+    private Book() {}
+
+    /**
+     * @return the bytes of every chapter of the bundled book, in file name order
+     */
+    static List<byte[]> bundledChapters() throws IOException {
+        String dir = System.getProperty("benchmarks.bookDir");
+        if (dir == null) {
+            throw new IOException("Set -Dbenchmarks.bookDir to the alice-xhtml asset directory");
+        }
+        File[] files = new File(dir).listFiles((d, name) -> name.endsWith(".htm.xhtml"));
+        if (files == null || files.length == 0) {
+            throw new IOException("No chapters in " + dir);
+        }
+        Arrays.sort(files);
+        List<byte[]> chapters = new ArrayList<>();
+        for (File file : files) {
+            chapters.add(Files.readAllBytes(file.toPath()));
+        }
+        return chapters;
+    }
+
+    /**
+     * @return XHTML chapters of about {@link #SYNTHETIC_CHAPTER_BYTES} and at least
+     * {@link #SYNTHETIC_BOOK_BYTES} in all, made of the bundled book's paragraphs over and over
+     */
+    static List<byte[]> syntheticBook(List<byte[]> chapters) throws IOException {
+        List<String> paragraphs = new ArrayList<>();
+        for (byte[] chapter : chapters) {
+            ParagraphExtractor.extract(new ByteArrayInputStream(chapter), paragraphs::add);
+        }
+        List<byte[]> book = new ArrayList<>();
+        int bookBytes = 0;
+        int next = 0;
+        StringBuilder xhtml = new StringBuilder(SYNTHETIC_CHAPTER_BYTES + 4 * 1024);
+        while (bookBytes < SYNTHETIC_BOOK_BYTES) {
+            xhtml.setLength(0);
+            xhtml.append("<?xml version='1.0' encoding='utf-8'?>\n<html xmlns=\"http://www.w3.org/1999/xhtml\"><body>\n");
+            while (xhtml.length() < SYNTHETIC_CHAPTER_BYTES) {
+                xhtml.append("<p>");
+                String text = paragraphs.get(next++ % paragraphs.size());
+                for (int c = 0; c < text.length(); c++) {
+                    char ch = text.charAt(c);
+                    if (ch == '&') {
+                        xhtml.append("&amp;");
+                    } else if (ch == '<') {
+                        xhtml.append("&lt;");
+                    } else {
+                        xhtml.append(ch);
+                    }
+                }
+                xhtml.append("</p>\n");
+            }
+            xhtml.append("</body></html>\n");
+            byte[] chapter = xhtml.toString().getBytes(StandardCharsets.UTF_8);
+            book.add(chapter);
+            bookBytes += chapter.length;
+        }
+        return book;
+    }
+
+    /**
+     * @return the text of every paragraph, each followed by a space, as the book index stores it
+     */
+    static StringBuilder extract(byte[] xhtml) throws IOException {
+        StringBuilder text = new StringBuilder();
+        ParagraphExtractor.extract(new ByteArrayInputStream(xhtml), paragraph -> text.append(paragraph).append(' '));
+        return text;
+    }
+
+    /**
+     * The regex pipeline the app used before: chunks split into lines of 40 characters, then pages.
+     */
+    static List<String[]> regexPages(byte[] xhtml) {
+        List<String[]> pages = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (String chunk : RegexBaseline.chunk(RegexBaseline.extractText(new String(xhtml, StandardCharsets.UTF_8)))) {
+            lines.addAll(Arrays.asList(RegexBaseline.splitTextIntoLines(chunk)));
+        }
+        for (int first = 0; first < lines.size(); first += LINES_PER_PAGE) {
+            pages.add(lines.subList(first, Math.min(first + LINES_PER_PAGE, lines.size())).toArray(new String[0]));
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,98 @@
+package com.vuzix.ultralite.sample.benchmarks;
+
+import com.vuzix.ultralite.sample.text.AdvanceTable;
+import com.vuzix.ultralite.sample.text.ChapterPaginator;
+import com.vuzix.ultralite.sample.text.LineBreaker;
+import com.vuzix.ultralite.sample.text.LogSampler;
+import com.vuzix.ultralite.sample.text.Page;
+import com.vuzix.ultralite.sample.text.SentenceChunker;
+import com.vuzix.ultralite.sample.text.TextLog;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bundled book through the pipeline the book index runs, then every line logged as
+ * {@code PageSession} logs the lines it sends, at each log level the app can be in.
+ *
+ * {@code release} has nothing enabled, as a release build without setprop. {@code debug} has debug
+ * enabled, so per-part and per-line messages are sampled. {@code verbose} has everything enabled,
+ * which builds the same messages the app built for every part and line before logging was
+ * guarded. Messages go to a sink that only counts them, so the difference between levels is the
+ * cost of building them. Compare {@code gc.alloc.rate.norm} between levels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class LoggingBenchmark {
+    private static final String TAG = "CanvasLayout";
+    private static final LogSampler LINES_LOGGED = new LogSampler(60);
+
+    @Param({"release", "debug", "verbose"})
+    public String level;
+
+    private List<StringBuilder> texts;
+    private ChapterPaginator paginator;
+    private TextLog log;
+    private long messageChars;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        texts = new ArrayList<>();
+        for (byte[] chapter : Book.bundledChapters()) {
+            texts.add(Book.extract(chapter));
+        }
+        int lowestLevel = "verbose".equals(level) ? TextLog.VERBOSE
+                : "debug".equals(level) ? TextLog.DEBUG
+                : Integer.MAX_VALUE;
+        log = new TextLog() {
+            @Override
+            public boolean isLoggable(String tag, int messageLevel) {
+                return messageLevel >= lowestLevel;
+            }
+
+            @Override
+            public void log(int messageLevel, String tag, String message) {
+                messageChars += message.length();
+            }
+        };
+        paginator = new ChapterPaginator(new LineBreaker(AdvanceTable.monospace(Book.AVERAGE_ADVANCE), Book.LINE_WIDTH),
+                Book.LINES_PER_PAGE, log);
+    }
+
+    @Benchmark
+    public void chapterToLoggedLines(Blackhole bh) {
+        for (StringBuilder text : texts) {
+            for (Page page : paginator.paginate(0, text, paginator.wrapChunks(text, SentenceChunker.chunkBounds(text)))) {
+                for (int i = 0; i < page.lines.length; i++) {
+                    String line = page.lines[i];
+                    if (LINES_LOGGED.sample(log, TAG)) {
+                        log.log(TextLog.DEBUG, TAG, "Displaying line " + (i + 1) + ": \"" + line + "\" (length: "
+                                + line.length() + ", " + LINES_LOGGED.getEvents() + " lines so far)");
+                    }
+                }
+                bh.consume(page);
+            }
+        }
+        bh.consume(messageChars);
+    }
+}
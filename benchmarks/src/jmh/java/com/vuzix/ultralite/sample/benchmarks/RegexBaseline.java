@@ -0,0 +1,122 @@
+package com.vuzix.ultralite.sample.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The regex text pipeline the app used before the pull parser, sentence chunker and line breaker,
+ * kept here only so benchmarks can compare against it. The logic is copied from the original
+ * {@code ChaptersViewModel.loadChapterContentParts} and {@code CanvasLayout.splitTextIntoLines},
+ * minus their logging.
+ */
+final class RegexBaseline {
+    private static final int MAX_CHUNK_LENGTH = 400;
+    private static final int MAX_CHARS_PER_LINE = 40;
+
+    private RegexBaseline() {}
+
+    /**
+     * @return the text of every {@code <p>}, tags removed, joined by spaces
+     */
+    static String extractText(String xhtmlContent) {
+        Pattern pTag = Pattern.compile("<p[^>]*>(.*?)</p>", Pattern.DOTALL);
+        Matcher matcher = pTag.matcher(xhtmlContent);
+        StringBuilder allText = new StringBuilder();
+        while (matcher.find()) {
+            String text = matcher.group(1).replaceAll("<[^>]+>", "").trim();
+            if (!text.isEmpty()) {
+                allText.append(text);
+                allText.append(" ");
+            }
+        }
+        return allText.toString().trim();
+    }
+
+    static String[] chunk(String fullText) {
+        List<String> partsList = new ArrayList<>();
+        if (!fullText.isEmpty()) {
+            String[] sentences = fullText.split("(?<=[.!?])\\s+");
+            StringBuilder currentChunk = new StringBuilder();
+            for (String sentence : sentences) {
+                sentence = sentence.trim();
+                if (sentence.isEmpty()) continue;
+                if (currentChunk.length() > 0
+                        && (currentChunk.length() + sentence.length() + 1) > MAX_CHUNK_LENGTH) {
+                    if (currentChunk.length() >= 50) {
+                        partsList.add(currentChunk.toString().trim());
+                        currentChunk = new StringBuilder();
+                    }
+                }
+                if (currentChunk.length() > 0) {
+                    currentChunk.append(" ");
+                }
+                currentChunk.append(sentence);
+            }
+            if (currentChunk.length() > 0) {
+                partsList.add(currentChunk.toString().trim());
+            }
+        }
+        return partsList.toArray(new String[0]);
+    }
+
+    static String[] splitTextIntoLines(String text) {
+        List<String> lines = new ArrayList<>();
+        String[] sentences = text.split("(?<=[.!?])\\s+");
+        StringBuilder currentLine = new StringBuilder();
+        for (String sentence : sentences) {
+            if (sentence.trim().isEmpty()) continue;
+            String testLine = currentLine.length() == 0 ? sentence.trim() : currentLine + " " + sentence.trim();
+            if (testLine.length() <= MAX_CHARS_PER_LINE) {
+                if (currentLine.length() > 0) {
+                    currentLine.append(" ");
+                }
+                currentLine.append(sentence.trim());
+            } else {
+                if (currentLine.length() > 0) {
+                    lines.add(currentLine.toString());
+                    currentLine = new StringBuilder();
+                }
+                if (sentence.trim().length() > MAX_CHARS_PER_LINE) {
+                    String[] words = sentence.trim().split("\\s+");
+                    for (String word : words) {
+                        if (word.isEmpty()) continue;
+                        String testWordLine = currentLine.length() == 0 ? word : currentLine + " " + word;
+                        if (testWordLine.length() <= MAX_CHARS_PER_LINE) {
+                            if (currentLine.length() > 0) {
+                                currentLine.append(" ");
+                            }
+                            currentLine.append(word);
+                        } else {
+                            if (currentLine.length() > 0) {
+                                lines.add(currentLine.toString());
+                                currentLine = new StringBuilder();
+                            }
+                            if (word.length() > MAX_CHARS_PER_LINE) {
+                                for (int i = 0; i < word.length(); i += MAX_CHARS_PER_LINE) {
+                                    int endIndex = Math.min(i + MAX_CHARS_PER_LINE, word.length());
+                                    lines.add(word.substring(i, endIndex));
+                                }
+                            } else {
+                                currentLine.append(word);
+                            }
+                        }
+                    }
+                } else {
+                    currentLine.append(sentence.trim());
+                }
+            }
+        }
+        if (currentLine.length() > 0) {
+            lines.add(currentLine.toString());
+        }
+        List<String> filteredLines = new ArrayList<>();
+        for (String line : lines) {
+            if (line != null && !line.trim().isEmpty()) {
+                filteredLines.add(line.trim());
+            }
+        }
+        return filteredLines.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,152 @@
+package com.vuzix.ultralite.sample.benchmarks;
+
+import com.vuzix.ultralite.sample.text.SentenceChunker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Each stage of turning a chapter into pages, and the whole of it, against the regex pipeline the
+ * app used before.
+ *
+ * {@code chapterToPages} runs the steps one after another over the whole chapter, as the book
+ * index does, and {@code chapterToPagesStreaming} runs them as the XHTML is read.
+ *
+ * {@code alice} is the bundled book, every chapter in turn; {@code synthetic10mb} is 10 MB of
+ * chapters the size of the bundled ones, in turn. Each stage starts from the previous stage's
+ * output, prepared once in {@link #setUp}, so it is timed on its own. Run with {@code -prof gc}
+ * (the Gradle build does) to see allocation per operation alongside time.
+ *
+ * The regex baseline wraps at 40 characters where the app now wraps at the field's width in
+ * pixels, so the two produce different lines; the comparison is of cost, not output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class TextPipelineBenchmark {
+
+    @Param({"alice", "synthetic10mb"})
+    public String book;
+
+    private List<byte[]> chapters;
+    private List<StringBuilder> texts;
+    private List<String> regexTexts;
+    private List<int[]> chunkBounds;
+    private List<String[]> regexChunks;
+    private List<int[]> lineBounds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<byte[]> bundled = Book.bundledChapters();
+        chapters = "alice".equals(book) ? bundled : Book.syntheticBook(bundled);
+        texts = new ArrayList<>();
+        regexTexts = new ArrayList<>();
+        chunkBounds = new ArrayList<>();
+        regexChunks = new ArrayList<>();
+        lineBounds = new ArrayList<>();
+        for (byte[] chapter : chapters) {
+            StringBuilder text = Book.extract(chapter);
+            int[] chunks = SentenceChunker.chunkBounds(text);
+            String regexText = RegexBaseline.extractText(new String(chapter, StandardCharsets.UTF_8));
+            texts.add(text);
+            chunkBounds.add(chunks);
+            lineBounds.add(Book.PAGINATOR.wrapChunks(text, chunks));
+            regexTexts.add(regexText);
+            regexChunks.add(RegexBaseline.chunk(regexText));
+        }
+    }
+
+    @Benchmark
+    public void extractPullParser(Blackhole bh) throws IOException {
+        for (byte[] chapter : chapters) {
+            bh.consume(Book.extract(chapter));
+        }
+    }
+
+    @Benchmark
+    public void extractRegex(Blackhole bh) {
+        for (byte[] chapter : chapters) {
+            bh.consume(RegexBaseline.extractText(new String(chapter, StandardCharsets.UTF_8)));
+        }
+    }
+
+    @Benchmark
+    public void chunkSentenceChunker(Blackhole bh) {
+        for (StringBuilder text : texts) {
+            bh.consume(SentenceChunker.chunkBounds(text));
+        }
+    }
+
+    @Benchmark
+    public void chunkRegex(Blackhole bh) {
+        for (String text : regexTexts) {
+            bh.consume(RegexBaseline.chunk(text));
+        }
+    }
+
+    @Benchmark
+    public void wrapLineBreaker(Blackhole bh) {
+        for (int i = 0; i < texts.size(); i++) {
+            bh.consume(Book.PAGINATOR.wrapChunks(texts.get(i), chunkBounds.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void wrapRegex(Blackhole bh) {
+        for (String[] chunks : regexChunks) {
+            for (String chunk : chunks) {
+                bh.consume(RegexBaseline.splitTextIntoLines(chunk));
+            }
+        }
+    }
+
+    @Benchmark
+    public void paginate(Blackhole bh) {
+        for (int i = 0; i < texts.size(); i++) {
+            bh.consume(Book.PAGINATOR.paginate(0, texts.get(i), lineBounds.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void chapterToPages(Blackhole bh) throws IOException {
+        for (byte[] chapter : chapters) {
+            StringBuilder text = Book.extract(chapter);
+            bh.consume(Book.PAGINATOR.paginate(0, text, Book.PAGINATOR.wrapChunks(text, SentenceChunker.chunkBounds(text))));
+        }
+    }
+
+    @Benchmark
+    public void chapterToPagesStreaming(Blackhole bh) throws IOException {
+        for (byte[] chapter : chapters) {
+            Book.PAGINATOR.paginate(new ByteArrayInputStream(chapter), 0, bh::consume);
+        }
+    }
+
+    @Benchmark
+    public void chapterToPagesRegex(Blackhole bh) {
+        for (byte[] chapter : chapters) {
+            bh.consume(Book.regexPages(chapter));
+        }
+    }
+}
@@ -16,4 +16,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "Ultralite SDK Sample"
 include(":app")
+include(":text-engine")
+include(":benchmarks")
  
\ No newline at end of file
@@ -0,0 +1,24 @@
+// The book text pipeline: XHTML paragraphs to sentence chunks to wrapped lines to pages, and the
+// reconciler that turns speech recognizer results into live caption edits. Plain Java with no
+// Android dependencies, so the app, the benchmarks and anything server-side share it.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    // Android provides XmlPullParser; JVM consumers add an implementation such as kxml2
+    compileOnly("net.sf.kxml:kxml2:2.3.0")
+
+    testImplementation("junit:junit:4.13.2")
+    testImplementation("net.sf.kxml:kxml2:2.3.0")
+}
+
+tasks.test {
+    // The recorded recognizer trace the caption tests replay ships with the app
+    systemProperty("captions.trace", "${rootDir}/app/src/main/assets/captions/sample_trace.txt")
+}
@@ -0,0 +1,285 @@
+package com.vuzix.ultralite.sample.captions;
+
+/**
+ * Sits between a speech recognizer and the live text on the glasses, and decides which of the
+ * recognizer's many partial results are worth sending.
+ *
+ * A recognizer reports the whole hypothesis of the current utterance many times a second and
+ * keeps rewriting its last few words. Sending each one would spend the link on text that is gone
+ * a moment later. Instead:
+ * <ul>
+ *     <li>Words two consecutive partials agree on are treated as stable and may be sent.</li>
+ *     <li>The unstable tail is only sent once the recognizer has been quiet for
+ *     {@code debounceMs}.</li>
+ *     <li>A final result is sent as soon as the rate limit allows, followed by a space.</li>
+ *     <li>Updates are at least {@code minIntervalMs} apart, whatever the recognizer does.</li>
+ *     <li>Text already shown is only taken back when the recognizer really contradicts it. A
+ *     partial that is only a shorter version of what is shown, as when results arrive out of order,
+ *     does not count until it has stood for {@code debounceMs}.</li>
+ * </ul>
+ *
+ * Updates reach the {@link Sink} as "replace the last n characters" edits, which is what
+ * {@code LiveTextFeeder.replaceLast} takes. A sink may stop being able to revise older text, as the
+ * feeder does once a line has scrolled up. Those words are then out of the reconciler's hands: it
+ * drops them from the open utterance, and from every later partial and the final, so an edit never
+ * reaches back past what the sink can still change. The reconciler has no thread or clock of its
+ * own: the caller passes the time with every call and calls {@link #tick} regularly, so the same
+ * code runs live and in {@link CaptionReplay}. Not thread safe.
+ */
+public final class CaptionReconciler {
+    public static final long DEFAULT_DEBOUNCE_MS = 400;
+    // Where to look for the last committed word, relative to the count of committed words
+    private static final int[] WORD_SHIFTS = {0, 1, -1, 2, -2};
+
+    /**
+     * Receives the edits to the displayed text.
+     */
+    public interface Sink {
+        void replaceLast(int count, String replacement);
+
+        /**
+         * @return how many of the last characters {@link #replaceLast} can still replace
+         */
+        default int revisableLength() {
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    private final Sink sink;
+    private final long debounceMs;
+    private final long minIntervalMs;
+    // Finals not sent yet, each followed by a space
+    private final StringBuilder finalized = new StringBuilder();
+    private String hypothesis = "";
+    private long hypothesisAt;
+    private int stableLength;
+    // Everything sent since the oldest utterance that is still open, less its committed words
+    private String shown = "";
+    // Leading words of the open utterance the sink can no longer revise, left out of the hypothesis,
+    // and the last of them
+    private int committedWords;
+    private String lastCommittedWord;
+    private long lastUpdateAt = Long.MIN_VALUE / 2;
+    private int partials;
+    private int finals;
+    private int updates;
+    private long charsSent;
+    private long charsRetracted;
+
+    public CaptionReconciler(Sink sink, long debounceMs, long minIntervalMs) {
+        this.sink = sink;
+        this.debounceMs = debounceMs;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * @return the shortest spacing between updates that keeps {@code bytesPerUpdate} within a link
+     * carrying {@code linkBytesPerSecond}
+     */
+    public static long minIntervalMs(int bytesPerUpdate, int linkBytesPerSecond) {
+        return (bytesPerUpdate * 1000L + linkBytesPerSecond - 1) / linkBytesPerSecond;
+    }
+
+    /**
+     * @param text the recognizer's current hypothesis for the whole utterance
+     */
+    public void onPartial(String text, long nowMs) {
+        partials++;
+        text = text.substring(afterCommitted(text, committedWords, lastCommittedWord));
+        stableLength = wordStart(text, commonPrefix(hypothesis, text));
+        hypothesis = text;
+        hypothesisAt = nowMs;
+    }
+
+    /**
+     * @param text the recognizer's final result for the utterance; the next partial starts a new one
+     */
+    public void onFinal(String text, long nowMs) {
+        finals++;
+        finalized.append(text, afterCommitted(text, committedWords, lastCommittedWord), text.length()).append(' ');
+        committedWords = 0;
+        hypothesis = "";
+        hypothesisAt = nowMs;
+        stableLength = 0;
+    }
+
+    /**
+     * Send an update if one is due.
+     *
+     * @return whether anything was sent
+     */
+    public boolean tick(long nowMs) {
+        String target = target(nowMs);
+        if (target.equals(shown) && finalized.length() == 0) {
+            return false;
+        }
+        if (nowMs - lastUpdateAt < minIntervalMs) {
+            return false;
+        }
+        int common = commonPrefix(shown, target);
+        int count = shown.length() - common;
+        boolean sent = count > 0 || common < target.length();
+        if (sent) {
+            sink.replaceLast(count, target.substring(common));
+            updates++;
+            charsSent += target.length() - common;
+            charsRetracted += count;
+            lastUpdateAt = nowMs;
+        }
+        // Finals are shown for good, so the open utterance now starts after them
+        shown = target.substring(finalized.length());
+        finalized.setLength(0);
+        commitUnrevisable();
+        return sent;
+    }
+
+    /**
+     * @return whether some text has not been shown yet, or not in its latest form
+     */
+    public boolean hasPending() {
+        return finalized.length() > 0 || !shown.equals(hypothesis);
+    }
+
+    public int getPartials() {
+        return partials;
+    }
+
+    public int getFinals() {
+        return finals;
+    }
+
+    public int getUpdates() {
+        return updates;
+    }
+
+    public long getCharsSent() {
+        return charsSent;
+    }
+
+    public long getCharsRetracted() {
+        return charsRetracted;
+    }
+
+    private String target(long nowMs) {
+        String pending = finalized.toString();
+        // Once the recognizer has settled, all of its hypothesis is shown
+        boolean settled = nowMs - hypothesisAt >= debounceMs;
+        String open = settled ? hypothesis : hypothesis.substring(0, stableLength);
+        String target = pending + open;
+        String current = pending + hypothesis;
+        if (shown.length() > target.length() && current.startsWith(shown)) {
+            // What is shown is not agreed on yet, but nothing contradicts it either
+            return shown;
+        }
+        if (!settled && pending.isEmpty() && shown.startsWith(hypothesis)) {
+            // A shorter hypothesis than what is shown, most likely a stale result; keep the text
+            // unless the recognizer sticks with it
+            return shown;
+        }
+        return target;
+    }
+
+    /**
+     * Move the words at the start of {@link #shown} that the sink can no longer revise out of the
+     * open utterance. If the recognizer has since rewritten them, as many of its words go, or a
+     * couple more or fewer to end on the same last word, so no word is shown twice.
+     */
+    private void commitUnrevisable() {
+        int unrevisable = shown.length() - sink.revisableLength();
+        if (unrevisable <= 0) {
+            return;
+        }
+        int words = wordsBefore(shown, unrevisable);
+        String lastWord = wordAt(shown, words - 1);
+        int dropped = afterCommitted(hypothesis, words, lastWord);
+        committedWords += wordsBefore(hypothesis, dropped);
+        lastCommittedWord = lastWord;
+        shown = shown.substring(unrevisable);
+        hypothesis = hypothesis.substring(dropped);
+        stableLength = Math.max(0, stableLength - dropped);
+    }
+
+    /**
+     * @return the offset in {@code text} after its first {@code words} words, or after a couple more
+     * or fewer if that is where {@code lastWord} is, as when the recognizer has split or joined words
+     */
+    private static int afterCommitted(String text, int words, String lastWord) {
+        if (words == 0) {
+            return 0;
+        }
+        for (int shift : WORD_SHIFTS) {
+            int count = words + shift;
+            if (count > 0 && lastWord.equalsIgnoreCase(wordAt(text, count - 1))) {
+                return afterWords(text, count);
+            }
+        }
+        return afterWords(text, words);
+    }
+
+    // Word number index of text, or null if it has fewer words
+    private static String wordAt(String text, int index) {
+        int start = afterWords(text, index);
+        if (index > 0 && start < text.length() && !Character.isWhitespace(text.charAt(start - 1))) {
+            // afterWords stopped inside text rather than after whitespace, so there is no such word
+            return null;
+        }
+        while (start < text.length() && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        return end > start ? text.substring(start, end) : null;
+    }
+
+    // The number of words that start before end
+    private static int wordsBefore(String text, int end) {
+        int words = 0;
+        for (int i = 0; i < end; i++) {
+            if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+                words++;
+            }
+        }
+        return words;
+    }
+
+    // The offset after the first count words of text and the whitespace that follows them
+    private static int afterWords(String text, int count) {
+        if (count == 0) {
+            return 0;
+        }
+        int i = 0;
+        int length = text.length();
+        while (i < length && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        for (int word = 0; word < count && i < length; word++) {
+            while (i < length && !Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+            while (i < length && Character.isWhitespace(text.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // Back off to the start of the word containing offset, so a half-agreed word is not stable
+    private static int wordStart(String text, int offset) {
+        while (offset > 0 && offset < text.length() && !Character.isWhitespace(text.charAt(offset - 1))
+                && !Character.isWhitespace(text.charAt(offset))) {
+            offset--;
+        }
+        return offset;
+    }
+}
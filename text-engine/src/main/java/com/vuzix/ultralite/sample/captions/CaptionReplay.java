@@ -0,0 +1,178 @@
+package com.vuzix.ultralite.sample.captions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays a recorded recognizer trace through a {@link CaptionReconciler} on a simulated clock, to
+ * compare settings without glasses or a device. The app's live text demo replays the same kind of
+ * trace on the real clock, through the feeder to the glasses.
+ *
+ * A trace has one result per line: the time in milliseconds since the start, {@code P} for a
+ * partial or {@code F} for a final, and the text, separated by single spaces. Blank lines and lines
+ * starting with {@code #} are ignored. The app's {@code assets/captions/sample_trace.txt} is one.
+ *
+ * The report gives the number of updates sent against the number a naive sender would make (one
+ * per result), the characters sent and taken back, and the time from each final result until the
+ * reconciler's sink holds it in full. That is the delay the reconciler adds by debouncing and rate
+ * limiting; the time to send it over the link and for the glasses to draw it comes on top.
+ */
+public final class CaptionReplay {
+    public static final long TICK_MS = 20;
+
+    /**
+     * One recognizer result from a trace.
+     */
+    public static final class Event {
+        public final long atMs;
+        public final boolean isFinal;
+        public final String text;
+
+        Event(long atMs, boolean isFinal, String text) {
+            this.atMs = atMs;
+            this.isFinal = isFinal;
+            this.text = text;
+        }
+
+        public void deliverTo(CaptionReconciler reconciler) {
+            if (isFinal) {
+                reconciler.onFinal(text, atMs);
+            } else {
+                reconciler.onPartial(text, atMs);
+            }
+        }
+    }
+
+    /**
+     * What a replay sent and how long finals took to reach the sink.
+     */
+    public static final class Report {
+        public final int partials;
+        public final int finals;
+        public final int updates;
+        public final long charsSent;
+        public final long charsRetracted;
+        // From each final result until the sink held it, sorted; excludes the link and the glasses
+        public final long[] finalToSinkMs;
+
+        Report(CaptionReconciler reconciler, long[] finalToSinkMs) {
+            this.partials = reconciler.getPartials();
+            this.finals = reconciler.getFinals();
+            this.updates = reconciler.getUpdates();
+            this.charsSent = reconciler.getCharsSent();
+            this.charsRetracted = reconciler.getCharsRetracted();
+            this.finalToSinkMs = finalToSinkMs;
+        }
+
+        public long percentile(int percent) {
+            if (finalToSinkMs.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percent / 100.0 * finalToSinkMs.length) - 1;
+            return finalToSinkMs[Math.max(0, index)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d partials, %d finals: %d updates (naive %d), %d chars sent, %d retracted, "
+                            + "final to sink p50=%dms p95=%dms max=%dms",
+                    partials, finals, updates, partials + finals, charsSent, charsRetracted,
+                    percentile(50), percentile(95), percentile(100));
+        }
+    }
+
+    private CaptionReplay() {}
+
+    public static List<Event> parse(Reader trace) throws IOException {
+        List<Event> events = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(trace);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int firstSpace = line.indexOf(' ');
+            if (firstSpace < 0 || firstSpace + 2 > line.length()
+                    || (line.charAt(firstSpace + 1) != 'P' && line.charAt(firstSpace + 1) != 'F')) {
+                throw new IOException("Malformed trace line " + lineNumber + ": " + line);
+            }
+            long atMs;
+            try {
+                atMs = Long.parseLong(line.substring(0, firstSpace));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed time on trace line " + lineNumber + ": " + line);
+            }
+            String text = firstSpace + 3 <= line.length() ? line.substring(firstSpace + 3) : "";
+            events.add(new Event(atMs, line.charAt(firstSpace + 1) == 'F', text));
+        }
+        return events;
+    }
+
+    /**
+     * Replay {@code events}, ticking the reconciler every {@link #TICK_MS} until everything is shown.
+     */
+    public static Report replay(List<Event> events, long debounceMs, long minIntervalMs) {
+        StringBuilder display = new StringBuilder();
+        return replay(events, (count, replacement) -> {
+            display.setLength(display.length() - count);
+            display.append(replacement);
+        }, display, debounceMs, minIntervalMs);
+    }
+
+    /**
+     * Replay {@code events} into {@code sink}, which must keep {@code display} holding everything
+     * it was sent.
+     */
+    public static Report replay(List<Event> events, CaptionReconciler.Sink sink, CharSequence display,
+                                long debounceMs, long minIntervalMs) {
+        CaptionReconciler reconciler = new CaptionReconciler(sink, debounceMs, minIntervalMs);
+
+        // The transcript so far, and for each final not yet displayed, where it ends and when it came
+        StringBuilder transcript = new StringBuilder();
+        ArrayDeque<long[]> awaiting = new ArrayDeque<>();
+        long[] latencies = new long[events.size()];
+        int latencyCount = 0;
+
+        int next = 0;
+        long now = events.isEmpty() ? 0 : events.get(0).atMs;
+        while (next < events.size() || reconciler.hasPending()) {
+            while (next < events.size() && events.get(next).atMs <= now) {
+                Event event = events.get(next++);
+                event.deliverTo(reconciler);
+                if (event.isFinal) {
+                    transcript.append(event.text).append(' ');
+                    awaiting.add(new long[]{transcript.length(), event.atMs});
+                }
+            }
+            if (reconciler.tick(now)) {
+                while (!awaiting.isEmpty() && shows(display, transcript, (int) awaiting.peek()[0])) {
+                    latencies[latencyCount++] = now - awaiting.remove()[1];
+                }
+            }
+            now += TICK_MS;
+        }
+        long[] finalLatencies = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(finalLatencies);
+        return new Report(reconciler, finalLatencies);
+    }
+
+    private static boolean shows(CharSequence display, StringBuilder transcript, int end) {
+        if (display.length() < end) {
+            return false;
+        }
+        for (int i = 0; i < end; i++) {
+            if (display.charAt(i) != transcript.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,69 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Caches the horizontal advance of every character for one font at one size.
+ *
+ * Advances are measured a page of 256 characters at a time, the first time any character in the
+ * page is needed, so a book in a single script only ever measures a handful of pages. Lookups after
+ * that are an array read. Safe to share between threads.
+ */
+public final class AdvanceTable {
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    /**
+     * Measures the advance of each character in {@code chars}, writing it to the same index of
+     * {@code advances}.
+     */
+    public interface Measurer {
+        void measure(char[] chars, float[] advances);
+    }
+
+    private final Measurer measurer;
+    private final AtomicReferenceArray<float[]> pages = new AtomicReferenceArray<>(1 << (16 - PAGE_BITS));
+
+    public AdvanceTable(Measurer measurer) {
+        this.measurer = measurer;
+    }
+
+    /**
+     * A table where every character has the same advance, for callers without font metrics.
+     */
+    public static AdvanceTable monospace(float advance) {
+        return new AdvanceTable((chars, advances) -> java.util.Arrays.fill(advances, advance));
+    }
+
+    public float advance(char c) {
+        int pageIndex = c >>> PAGE_BITS;
+        float[] page = pages.get(pageIndex);
+        if (page == null) {
+            page = measurePage(pageIndex);
+        }
+        return page[c & (PAGE_SIZE - 1)];
+    }
+
+    /**
+     * @return the summed advance of {@code text[start, end)}
+     */
+    public float measure(CharSequence text, int start, int end) {
+        float width = 0;
+        for (int i = start; i < end; i++) {
+            width += advance(text.charAt(i));
+        }
+        return width;
+    }
+
+    private float[] measurePage(int pageIndex) {
+        char[] chars = new char[PAGE_SIZE];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            chars[i] = (char) ((pageIndex << PAGE_BITS) | i);
+        }
+        float[] page = new float[PAGE_SIZE];
+        measurer.measure(chars, page);
+        // Another thread may have measured the same page; either result is equivalent
+        pages.compareAndSet(pageIndex, null, page);
+        return pages.get(pageIndex);
+    }
+}
@@ -0,0 +1,164 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Turns chapter XHTML into {@link Page}s: paragraphs from {@link ParagraphExtractor}, chunks from
+ * {@link SentenceChunker}, lines from a {@link LineBreaker}, then pages of a fixed number of lines.
+ *
+ * {@link #paginate(InputStream, int, Page.Listener)} runs the whole pipeline as the XHTML is read.
+ * The separate steps are here too, for callers such as a book index that keep the text and its
+ * offsets instead of pages; both routes produce the same pages.
+ */
+public final class ChapterPaginator {
+    private static final String TAG = "ChapterPaginator";
+    // Chunks this short or shorter are dropped; they are usually stray headings or page numbers
+    private static final int MIN_CHUNK_CHARS = 10;
+    // Streamed text is chunked once this much is pending, or twice what was left last time
+    private static final int MIN_PENDING_CHARS = 4 * SentenceChunker.MAX_CHUNK_LENGTH;
+    // A chapter has hundreds of parts; at debug level only a sample of them is logged
+    private static final LogSampler PARTS_LOGGED = new LogSampler(50);
+    private static final LogSampler SHORT_PARTS_LOGGED = new LogSampler(10);
+
+    private final LineBreaker lineBreaker;
+    private final int linesPerPage;
+    private final TextLog log;
+
+    public ChapterPaginator(LineBreaker lineBreaker, int linesPerPage, TextLog log) {
+        this.lineBreaker = lineBreaker;
+        this.linesPerPage = linesPerPage;
+        this.log = log;
+    }
+
+    public int getLinesPerPage() {
+        return linesPerPage;
+    }
+
+    /**
+     * Read one chapter of XHTML and hand each page to {@code listener} as soon as it is full. Only
+     * the text of the last, still growing chunk is held, so memory does not grow with the chapter.
+     * The stream is not closed.
+     *
+     * @return the number of pages
+     */
+    public int paginate(InputStream xhtml, int chapterIndex, Page.Listener listener) throws IOException {
+        PageStream pages = new PageStream(chapterIndex, listener);
+        ParagraphExtractor.extract(xhtml, pages::onParagraph);
+        pages.finish();
+        log.debug(TAG, () -> "Chapter " + chapterIndex + ": " + pages.lineCount + " lines on " + pages.pageCount + " pages");
+        return pages.pageCount;
+    }
+
+    /**
+     * Split lines from {@link #wrapChunks} into pages.
+     */
+    public List<Page> paginate(int chapterIndex, CharSequence text, int[] lineBounds) {
+        return Page.paginate(chapterIndex, text, lineBounds, linesPerPage);
+    }
+
+    /**
+     * Wrap chunks into the continuous stream of display lines that pages are cut from. Chunks and
+     * lines are {@code start, end} offset pairs into {@code text}, so no intermediate Strings are
+     * created.
+     */
+    public int[] wrapChunks(CharSequence text, int[] chunkBounds) {
+        IntList allLines = new IntList(chunkBounds.length * 4);
+        int partCount = chunkBounds.length / 2;
+        for (int partIndex = 0; partIndex < partCount; partIndex++) {
+            int lineCount = wrapChunk(text, chunkBounds[2 * partIndex], chunkBounds[2 * partIndex + 1], allLines);
+            if (lineCount >= 0 && PARTS_LOGGED.sample(log, TAG)) {
+                log.log(TextLog.DEBUG, TAG, "Part " + (partIndex + 1) + "/" + partCount + " split into " + lineCount + " lines");
+            }
+        }
+        log.debug(TAG, () -> "Total lines to display: " + allLines.size() / 2);
+        return allLines.toArray();
+    }
+
+    /**
+     * Append the lines of one chunk to {@code lines}.
+     *
+     * @return the number of lines added, or -1 if the chunk was too short to show
+     */
+    private int wrapChunk(CharSequence text, int chunkStart, int chunkEnd, IntList lines) {
+        int start = SentenceChunker.skipWhitespace(text, chunkStart, chunkEnd);
+        int end = SentenceChunker.trimEnd(text, start, chunkEnd);
+        if (end - start <= MIN_CHUNK_CHARS) {
+            if (SHORT_PARTS_LOGGED.sample(log, TAG)) {
+                log.log(TextLog.DEBUG, TAG, "Filtering out short part: \"" + text.subSequence(start, end) + "\" (length: " + (end - start) + ")");
+            }
+            return -1;
+        }
+        return lineBreaker.breakLines(text, start, end, lines);
+    }
+
+    /**
+     * The state of one streamed chapter. Paragraphs are appended to {@code pending} as the book index
+     * would store them. A chunk is final once a later chunk has started, because the chunker never
+     * revisits a closed chunk, so every chunk but the last is wrapped, its lines are moved onto the
+     * page being filled, and its text is dropped.
+     */
+    private final class PageStream {
+        private final int chapterIndex;
+        private final Page.Listener listener;
+        private final StringBuilder pending = new StringBuilder();
+        private final IntList chunkLines = new IntList();
+        private int pendingLimit = MIN_PENDING_CHARS;
+        private String[] pageLines = new String[linesPerPage];
+        private int pageLineCount;
+        int lineCount;
+        int pageCount;
+
+        PageStream(int chapterIndex, Page.Listener listener) {
+            this.chapterIndex = chapterIndex;
+            this.listener = listener;
+        }
+
+        void onParagraph(String text) {
+            pending.append(text).append(' ');
+            if (pending.length() >= pendingLimit) {
+                wrapPending(false);
+                // Growing the limit with what is left keeps a very long sentence from being rechunked
+                // on every paragraph
+                pendingLimit = Math.max(MIN_PENDING_CHARS, 2 * pending.length());
+            }
+        }
+
+        void finish() {
+            wrapPending(true);
+            if (pageLineCount > 0) {
+                emit(Arrays.copyOf(pageLines, pageLineCount));
+            }
+        }
+
+        private void wrapPending(boolean chapterEnded) {
+            int[] chunkBounds = SentenceChunker.chunkBounds(pending);
+            int finalBounds = chapterEnded ? chunkBounds.length : chunkBounds.length - 2;
+            for (int i = 0; i < finalBounds; i += 2) {
+                chunkLines.clear();
+                wrapChunk(pending, chunkBounds[i], chunkBounds[i + 1], chunkLines);
+                for (int line = 0; line < chunkLines.size(); line += 2) {
+                    pageLines[pageLineCount++] = pending.substring(chunkLines.get(line), chunkLines.get(line + 1));
+                    lineCount++;
+                    if (pageLineCount == linesPerPage) {
+                        emit(pageLines);
+                        pageLines = new String[linesPerPage];
+                        pageLineCount = 0;
+                    }
+                }
+            }
+            if (chapterEnded) {
+                pending.setLength(0);
+            } else if (finalBounds > 0) {
+                pending.delete(0, chunkBounds[finalBounds]);
+            }
+        }
+
+        private void emit(String[] lines) {
+            pageCount++;
+            listener.onPage(new Page(chapterIndex, lines));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.vuzix.ultralite.sample.text;
+
+/**
+ * Greedy line breaking against a pixel width.
+ *
+ * One pass over the text accumulates glyph advances from an {@link AdvanceTable} and remembers the
+ * last word boundary. When the next glyph would overflow the line, the line ends at that boundary
+ * and the partly measured word carries over to the next line without being measured again. A word
+ * wider than a whole line is broken between characters. Whitespace runs count as a single space,
+ * matching how the text is rendered, and never start or end a line.
+ *
+ * Lines are appended to an {@link IntList} as {@code start, end} offset pairs; no Strings are
+ * created.
+ */
+public final class LineBreaker {
+    private final AdvanceTable advances;
+    private final float maxWidth;
+
+    public LineBreaker(AdvanceTable advances, float maxWidth) {
+        this.advances = advances;
+        this.maxWidth = maxWidth;
+    }
+
+    public float getMaxWidth() {
+        return maxWidth;
+    }
+
+    /**
+     * Break {@code text[start, end)} into lines, appending each as a {@code start, end} pair.
+     *
+     * @return the number of lines added
+     */
+    public int breakLines(CharSequence text, int start, int end, IntList lines) {
+        float spaceWidth = advances.advance(' ');
+        int added = 0;
+        int i = SentenceChunker.skipWhitespace(text, start, end);
+        int lineStart = i;
+        float lineWidth = 0;
+        // The end of the last word on this line, and where the word after it begins
+        int breakEnd = -1;
+        int breakNext = -1;
+        float widthAtBreakNext = 0;
+
+        while (i < end) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                breakEnd = i;
+                i = SentenceChunker.skipWhitespace(text, i, end);
+                lineWidth += spaceWidth;
+                breakNext = i;
+                widthAtBreakNext = lineWidth;
+                continue;
+            }
+            float advance = advances.advance(c);
+            if (lineWidth + advance > maxWidth && i > lineStart) {
+                if (breakEnd > lineStart) {
+                    // End the line at the last word boundary and carry the partial word over
+                    lines.add(lineStart);
+                    lines.add(breakEnd);
+                    lineStart = breakNext;
+                    lineWidth -= widthAtBreakNext;
+                } else {
+                    // A single word is wider than the line
+                    lines.add(lineStart);
+                    lines.add(i);
+                    lineStart = i;
+                    lineWidth = 0;
+                }
+                added++;
+                breakEnd = -1;
+                continue;
+            }
+            lineWidth += advance;
+            i++;
+        }
+
+        int lineEnd = SentenceChunker.trimEnd(text, lineStart, end);
+        if (lineEnd > lineStart) {
+            lines.add(lineStart);
+            lines.add(lineEnd);
+            added++;
+        }
+        return added;
+    }
+}
@@ -0,0 +1,40 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which of a stream of similar events, such as one per line, get a log message.
+ *
+ * With verbose logging on for the tag, every event is logged. Otherwise, if debug logging is on,
+ * the first event and every {@code every}-th after it are, and the message can say how many went
+ * by with {@link #getEvents}. With neither, nothing is counted or built. Safe to share between
+ * threads.
+ */
+public final class LogSampler {
+    private final int every;
+    private final AtomicLong events = new AtomicLong();
+
+    public LogSampler(int every) {
+        this.every = every;
+    }
+
+    /**
+     * Count one event.
+     *
+     * @return whether to log it
+     */
+    public boolean sample(TextLog log, String tag) {
+        if (log.isLoggable(tag, TextLog.VERBOSE)) {
+            events.incrementAndGet();
+            return true;
+        }
+        return log.isLoggable(tag, TextLog.DEBUG) && events.getAndIncrement() % every == 0;
+    }
+
+    /**
+     * @return the events counted so far, logged or not
+     */
+    public long getEvents() {
+        return events.get();
+    }
+}
@@ -0,0 +1,77 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Extracted book text kept in a file of UTF-16 code units and served through a memory map.
+ *
+ * Ranges come back as {@link CharSequence} views over the mapped pages, so reading a chapter does
+ * not copy it onto the Java heap; the kernel pages text in as it is touched. Views are immutable
+ * snapshots and may be shared between threads.
+ */
+public final class MappedTextStore {
+    private final CharBuffer chars;
+
+    private MappedTextStore(CharBuffer chars) {
+        this.chars = chars;
+    }
+
+    public static MappedTextStore open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedTextStore(buffer.asCharBuffer());
+        }
+    }
+
+    public int length() {
+        return chars.length();
+    }
+
+    /**
+     * @return a zero-copy view of the characters in {@code [start, end)}
+     */
+    public CharSequence subSequence(int start, int end) {
+        return chars.subSequence(start, end);
+    }
+
+    /**
+     * Appends text to a new store file. Offsets returned by {@link #append} are the positions to
+     * pass to {@link MappedTextStore#subSequence} once the file is opened.
+     */
+    public static final class Writer implements Closeable {
+        private final java.io.Writer out;
+        private int length;
+
+        public Writer(File file) throws IOException {
+            // UTF-16BE matches the default byte order of ByteBuffer.asCharBuffer()
+            out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_16BE), 64 * 1024);
+        }
+
+        /**
+         * @return the offset at which {@code text} starts in the store
+         */
+        public int append(CharSequence text) throws IOException {
+            int offset = length;
+            out.append(text);
+            length += text.length();
+            return offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One screen of chapter text, ready to send: the lines are already Strings, so showing a page does
+ * no text work on the sending thread.
+ */
+public final class Page {
+    public final int chapterIndex;
+    public final String[] lines;
+    public final int wordCount;
+
+    /**
+     * Receives pages one at a time, in reading order.
+     */
+    public interface Listener {
+        void onPage(Page page);
+    }
+
+    public Page(int chapterIndex, String[] lines) {
+        this.chapterIndex = chapterIndex;
+        this.lines = lines;
+        int words = 0;
+        for (String line : lines) {
+            words += countWords(line);
+        }
+        this.wordCount = words;
+    }
+
+    private static int countWords(String line) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < line.length(); i++) {
+            boolean whitespace = Character.isWhitespace(line.charAt(i));
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+
+    /**
+     * Split wrapped lines, given as {@code start, end} offset pairs into {@code text}, into pages
+     * of at most {@code linesPerPage} lines.
+     */
+    public static List<Page> paginate(int chapterIndex, CharSequence text, int[] lineBounds, int linesPerPage) {
+        int lineCount = lineBounds.length / 2;
+        List<Page> pages = new ArrayList<>((lineCount + linesPerPage - 1) / linesPerPage);
+        for (int first = 0; first < lineCount; first += linesPerPage) {
+            String[] lines = new String[Math.min(linesPerPage, lineCount - first)];
+            for (int i = 0; i < lines.length; i++) {
+                // The SDK takes a String, so this is the only place a line is copied off the text
+                lines[i] = text.subSequence(lineBounds[2 * (first + i)], lineBounds[2 * (first + i) + 1]).toString();
+            }
+            pages.add(new Page(chapterIndex, lines));
+        }
+        return pages;
+    }
+}
@@ -0,0 +1,148 @@
+package com.vuzix.ultralite.sample.text;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streams the text of every paragraph out of an XHTML chapter.
+ *
+ * A paragraph is the text of a block element: {@code <p>}, {@code <pre>}, {@code <blockquote>} or
+ * {@code <div>}. Where blocks nest, each block boundary ends the current paragraph, so a
+ * {@code <div>} holding {@code <p>}s yields the paragraphs and any loose text between them, and
+ * nothing twice. Headings are left out; the chapter list already shows the title.
+ *
+ * The document is read with a pull parser straight from the asset stream, so only the paragraph
+ * currently being built is ever held in memory. Nested inline markup ({@code <i>}, {@code <a>}, ...)
+ * contributes its text, {@code <br/>} becomes a space, and runs of whitespace are collapsed the way
+ * a browser would render them, including inside {@code <pre>}, since the text is rewrapped for the
+ * glasses anyway. Entities are decoded by the parser; the common HTML named entities that are not
+ * predefined in XML are registered so that books using them still parse.
+ *
+ * This class has no Android dependencies so it can be exercised on a plain JVM.
+ */
+public final class ParagraphExtractor {
+
+    /**
+     * Receives one callback per non-empty paragraph, in document order.
+     */
+    public interface Listener {
+        void onParagraph(String text);
+    }
+
+    private static final String[][] HTML_ENTITIES = {
+            {"nbsp", "\u00a0"}, {"shy", "\u00ad"}, {"copy", "\u00a9"}, {"reg", "\u00ae"},
+            {"ndash", "\u2013"}, {"mdash", "\u2014"}, {"lsquo", "\u2018"}, {"rsquo", "\u2019"},
+            {"ldquo", "\u201c"}, {"rdquo", "\u201d"}, {"hellip", "\u2026"}, {"laquo", "\u00ab"},
+            {"raquo", "\u00bb"}, {"middot", "\u00b7"}, {"bull", "\u2022"}, {"eacute", "\u00e9"},
+    };
+
+    private static final char[] WHITESPACE = {' '};
+    private static final XmlPullParserFactory FACTORY;
+
+    static {
+        try {
+            FACTORY = XmlPullParserFactory.newInstance();
+        } catch (XmlPullParserException e) {
+            throw new IllegalStateException("No XmlPullParser implementation", e);
+        }
+    }
+
+    private ParagraphExtractor() {}
+
+    /**
+     * Parse the XHTML document in {@code in} and report each paragraph to {@code listener}. The
+     * stream is not closed.
+     */
+    public static void extract(InputStream in, Listener listener) throws IOException {
+        try {
+            XmlPullParser parser = FACTORY.newPullParser();
+            parser.setInput(in, "UTF-8");
+            for (String[] entity : HTML_ENTITIES) {
+                parser.defineEntityReplacementText(entity[0], entity[1]);
+            }
+            StringBuilder paragraph = new StringBuilder(512);
+            int[] startAndLength = new int[2];
+            int blockDepth = 0;
+            int headingDepth = 0;
+            int eventType = parser.getEventType();
+            while (eventType != XmlPullParser.END_DOCUMENT) {
+                if (eventType == XmlPullParser.START_TAG) {
+                    String tagName = parser.getName();
+                    if (isBlock(tagName)) {
+                        emit(paragraph, listener);
+                        blockDepth++;
+                    } else if (isHeading(tagName)) {
+                        headingDepth++;
+                    } else if (blockDepth > 0 && "br".equals(tagName)) {
+                        appendCollapsed(paragraph, WHITESPACE, 0, 1);
+                    }
+                } else if (eventType == XmlPullParser.TEXT) {
+                    if (blockDepth > 0 && headingDepth == 0) {
+                        // The parser's own buffer, rather than a String copy of every text run
+                        char[] text = parser.getTextCharacters(startAndLength);
+                        appendCollapsed(paragraph, text, startAndLength[0], startAndLength[1]);
+                    }
+                } else if (eventType == XmlPullParser.END_TAG) {
+                    String tagName = parser.getName();
+                    if (isBlock(tagName)) {
+                        emit(paragraph, listener);
+                        blockDepth--;
+                    } else if (isHeading(tagName)) {
+                        headingDepth--;
+                    }
+                }
+                eventType = parser.next();
+            }
+        } catch (XmlPullParserException e) {
+            throw new IOException("Malformed XHTML", e);
+        }
+    }
+
+    private static boolean isBlock(String tagName) {
+        return "p".equals(tagName) || "div".equals(tagName) || "pre".equals(tagName)
+                || "blockquote".equals(tagName);
+    }
+
+    private static boolean isHeading(String tagName) {
+        return tagName.length() == 2 && tagName.charAt(0) == 'h' && tagName.charAt(1) >= '1' && tagName.charAt(1) <= '6';
+    }
+
+    /**
+     * Report the paragraph built so far, if it has any text, and start the next one.
+     */
+    private static void emit(StringBuilder paragraph, Listener listener) {
+        int length = paragraph.length();
+        if (length > 0 && paragraph.charAt(length - 1) == ' ') {
+            paragraph.setLength(length - 1);
+        }
+        if (paragraph.length() > 0) {
+            listener.onParagraph(paragraph.toString());
+        }
+        paragraph.setLength(0);
+    }
+
+    /**
+     * Append {@code length} chars of {@code text} from {@code start} while collapsing any
+     * whitespace run to a single space and dropping leading whitespace at the start of the
+     * paragraph.
+     */
+    private static void appendCollapsed(StringBuilder out, char[] text, int start, int length) {
+        boolean pendingSpace = out.length() > 0 && out.charAt(out.length() - 1) == ' ';
+        for (int i = start, end = start + length; i < end; i++) {
+            char c = text[i];
+            if (Character.isWhitespace(c)) {
+                if (!pendingSpace && out.length() > 0) {
+                    out.append(' ');
+                    pendingSpace = true;
+                }
+            } else {
+                out.append(c);
+                pendingSpace = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.vuzix.ultralite.sample.text;
+
+/**
+ * Groups running text into display-sized chunks without ever breaking a sentence.
+ *
+ * A sentence ends at {@code .}, {@code !} or {@code ?} followed by whitespace. Sentences are
+ * added to the current chunk until the next one would push it past {@link #MAX_CHUNK_LENGTH};
+ * chunks shorter than {@link #MIN_CHUNK_LENGTH} keep growing instead so tiny fragments never
+ * become a chunk of their own.
+ *
+ * Chunks are reported as {@code [start, end)} offset pairs into the source text rather than as
+ * Strings, so the text can stay in a {@link MappedTextStore}. With whitespace already collapsed
+ * (as {@link ParagraphExtractor} emits it) a range reads exactly like the sentences joined by
+ * single spaces.
+ */
+public final class SentenceChunker {
+    public static final int MAX_CHUNK_LENGTH = 400;
+    public static final int MIN_CHUNK_LENGTH = 50;
+
+    private SentenceChunker() {}
+
+    /**
+     * @return chunk boundaries as consecutive {@code start, end} pairs
+     */
+    public static int[] chunkBounds(CharSequence text) {
+        IntList bounds = new IntList();
+        int length = text.length();
+        int chunkStart = -1;
+        int chunkEnd = -1;
+        int start = skipWhitespace(text, 0, length);
+        while (start < length) {
+            int end = sentenceEnd(text, start, length);
+            int trimmedEnd = trimEnd(text, start, end);
+            if (trimmedEnd > start) {
+                // If adding this sentence would exceed max length, start a new chunk
+                if (chunkStart != -1
+                        && (chunkEnd - chunkStart) + (trimmedEnd - start) + 1 > MAX_CHUNK_LENGTH
+                        && chunkEnd - chunkStart >= MIN_CHUNK_LENGTH) {
+                    bounds.add(chunkStart);
+                    bounds.add(chunkEnd);
+                    chunkStart = -1;
+                }
+                if (chunkStart == -1) {
+                    chunkStart = start;
+                }
+                chunkEnd = trimmedEnd;
+            }
+            start = skipWhitespace(text, end, length);
+        }
+        if (chunkStart != -1) {
+            bounds.add(chunkStart);
+            bounds.add(chunkEnd);
+        }
+        return bounds.toArray();
+    }
+
+    /**
+     * @return the index just past the sentence starting at {@code start}: after the terminating
+     * punctuation when it is followed by whitespace, or {@code end}
+     */
+    public static int sentenceEnd(CharSequence text, int start, int end) {
+        for (int i = start; i < end - 1; i++) {
+            char c = text.charAt(i);
+            if ((c == '.' || c == '!' || c == '?') && Character.isWhitespace(text.charAt(i + 1))) {
+                return i + 1;
+            }
+        }
+        return end;
+    }
+
+    public static int skipWhitespace(CharSequence text, int index, int end) {
+        while (index < end && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    public static int trimEnd(CharSequence text, int start, int end) {
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return end;
+    }
+}
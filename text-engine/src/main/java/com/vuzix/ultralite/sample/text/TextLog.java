@@ -0,0 +1,43 @@
+package com.vuzix.ultralite.sample.text;
+
+import java.util.function.Supplier;
+
+/**
+ * Where the text engine reports what it is doing. The engine has no logging of its own, so an app
+ * passes one that forwards to its log, and a server or benchmark passes {@link #NONE}.
+ *
+ * Levels are Android's. Messages in loops are built only after {@link #isLoggable} says they
+ * would be written, or are passed as a {@link Supplier}; per-line or per-part messages also go
+ * through a {@link LogSampler}, so even an enabled log gets a sample rather than every one.
+ */
+public interface TextLog {
+    int VERBOSE = 2;
+    int DEBUG = 3;
+
+    TextLog NONE = new TextLog() {
+        @Override
+        public boolean isLoggable(String tag, int level) {
+            return false;
+        }
+
+        @Override
+        public void log(int level, String tag, String message) {
+        }
+    };
+
+    boolean isLoggable(String tag, int level);
+
+    void log(int level, String tag, String message);
+
+    default void debug(String tag, String message) {
+        if (isLoggable(tag, DEBUG)) {
+            log(DEBUG, tag, message);
+        }
+    }
+
+    default void debug(String tag, Supplier<String> message) {
+        if (isLoggable(tag, DEBUG)) {
+            log(DEBUG, tag, message.get());
+        }
+    }
+}
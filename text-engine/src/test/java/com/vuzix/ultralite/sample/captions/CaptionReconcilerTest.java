@@ -0,0 +1,133 @@
+package com.vuzix.ultralite.sample.captions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class CaptionReconcilerTest {
+    private static final long DEBOUNCE_MS = 400;
+
+    // Applies the edits, as the live text feeder does
+    private final StringBuilder display = new StringBuilder();
+    private final CaptionReconciler.Sink sink = (count, replacement) -> {
+        display.setLength(display.length() - count);
+        display.append(replacement);
+    };
+    private final CaptionReconciler reconciler = new CaptionReconciler(sink, DEBOUNCE_MS, 0);
+
+    @Test
+    public void sendsAgreedWordsBeforeTheRecognizerSettles() {
+        reconciler.onPartial("so the mee", 0);
+        reconciler.onPartial("so the meeting", 50);
+        assertTrue(reconciler.tick(60));
+        // "mee" and "meeting" only agree on part of a word, so it is not sent yet
+        assertEquals("so the ", display.toString());
+        assertFalse(reconciler.tick(100));
+
+        assertTrue(reconciler.tick(50 + DEBOUNCE_MS));
+        assertEquals("so the meeting", display.toString());
+        assertFalse(reconciler.hasPending());
+    }
+
+    @Test
+    public void revisionsRetractOnlyTheWordsThatChanged() {
+        reconciler.onPartial("the meeting is moved to", 0);
+        reconciler.tick(DEBOUNCE_MS);
+        assertEquals("the meeting is moved to", display.toString());
+
+        reconciler.onPartial("the meeting has moved to", 500);
+        reconciler.tick(500 + DEBOUNCE_MS);
+        assertEquals("the meeting has moved to", display.toString());
+        assertEquals("is moved to".length(), reconciler.getCharsRetracted());
+        assertEquals(2, reconciler.getUpdates());
+    }
+
+    @Test
+    public void finalsAreSentAtOnceAndEndWithASpace() {
+        reconciler.onPartial("so the meeting", 0);
+        reconciler.onFinal("So the meeting moved.", 100);
+        assertTrue(reconciler.tick(100));
+        assertEquals("So the meeting moved. ", display.toString());
+
+        reconciler.onPartial("we need", 200);
+        reconciler.tick(200 + DEBOUNCE_MS);
+        assertEquals("So the meeting moved. we need", display.toString());
+        // The final is never taken back by the next utterance
+        reconciler.onFinal("We need slides.", 700);
+        reconciler.tick(700);
+        assertEquals("So the meeting moved. We need slides. ", display.toString());
+        assertEquals(2, reconciler.getFinals());
+    }
+
+    @Test
+    public void staleShorterPartialDoesNotRetract() {
+        reconciler.onPartial("so the meeting is", 0);
+        reconciler.tick(DEBOUNCE_MS);
+        assertEquals("so the meeting is", display.toString());
+
+        // An older result delivered late
+        reconciler.onPartial("so the", 450);
+        assertFalse(reconciler.tick(460));
+        reconciler.onPartial("so the meeting is moved", 500);
+        reconciler.tick(500 + DEBOUNCE_MS);
+        assertEquals("so the meeting is moved", display.toString());
+        assertEquals(0, reconciler.getCharsRetracted());
+    }
+
+    @Test
+    public void aShorterPartialThatStandsIsShown() {
+        reconciler.onPartial("so the meeting is", 0);
+        reconciler.tick(DEBOUNCE_MS);
+        reconciler.onPartial("so the meeting", 450);
+        reconciler.tick(450 + DEBOUNCE_MS);
+        assertEquals("so the meeting", display.toString());
+    }
+
+    @Test
+    public void updatesAreRateLimited() {
+        CaptionReconciler limited = new CaptionReconciler(sink, 0, 200);
+        limited.onPartial("one", 0);
+        assertTrue(limited.tick(0));
+        limited.onPartial("one two", 50);
+        assertFalse(limited.tick(100));
+        assertTrue(limited.tick(200));
+        assertEquals("one two", display.toString());
+    }
+
+    @Test
+    public void editsStayWithinWhatTheSinkCanRevise() {
+        // Like the feeder, lines of 12 characters or so are committed once full
+        int[] committed = {0};
+        CaptionReconciler.Sink committing = new CaptionReconciler.Sink() {
+            @Override
+            public void replaceLast(int count, String replacement) {
+                assertTrue("replacing " + count + " of " + revisableLength(), count <= revisableLength());
+                sink.replaceLast(count, replacement);
+                int lastSpace = display.lastIndexOf(" ");
+                if (lastSpace - committed[0] >= 12) {
+                    committed[0] = lastSpace + 1;
+                }
+            }
+
+            @Override
+            public int revisableLength() {
+                return display.length() - committed[0];
+            }
+        };
+        CaptionReconciler reconciler = new CaptionReconciler(committing, DEBOUNCE_MS, 0);
+        String[] partials = {"the quick", "the quick brown fox", "the quick brown fox jumps over",
+                "the quick brown fox jumped over the", "a quick brown fox jumped over the lazy dog"};
+        long now = 0;
+        for (String partial : partials) {
+            reconciler.onPartial(partial, now);
+            now += DEBOUNCE_MS;
+            reconciler.tick(now);
+        }
+        reconciler.onFinal("A quick brown fox jumped over the lazy dog.", now);
+        reconciler.tick(now);
+        // Words scrolled out of reach stay as first shown, and none is shown twice
+        assertEquals("the quick brown fox jumped over the lazy dog. ", display.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.vuzix.ultralite.sample.captions;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * The app's recorded recognizer trace replayed through the reconciler.
+ */
+public class CaptionReplayTest {
+    private static List<CaptionReplay.Event> events;
+
+    @BeforeClass
+    public static void readTrace() throws IOException {
+        String trace = System.getProperty("captions.trace");
+        if (trace == null) {
+            throw new IOException("Set -Dcaptions.trace to the app's captions/sample_trace.txt");
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(trace), StandardCharsets.UTF_8)) {
+            events = CaptionReplay.parse(reader);
+        }
+    }
+
+    @Test
+    public void sendsFewerUpdatesThanResults() {
+        CaptionReplay.Report report = CaptionReplay.replay(events, CaptionReconciler.DEFAULT_DEBOUNCE_MS, 150);
+        // A third fewer than one per result. Most of what is taken back is finals recasing the
+        // partials, which no amount of waiting avoids
+        assertTrue(report.toString(), report.updates * 3 < (report.partials + report.finals) * 2);
+        assertTrue(report.toString(), report.charsRetracted < report.charsSent);
+    }
+
+    @Test
+    public void everyFinalReachesTheSinkWithinTheRateLimit() {
+        long minIntervalMs = 150;
+        CaptionReplay.Report report = CaptionReplay.replay(events, CaptionReconciler.DEFAULT_DEBOUNCE_MS, minIntervalMs);
+        assertEquals(report.finals, report.finalToSinkMs.length);
+        // A final waits at most for the rate limit and the next tick
+        assertTrue(report.toString(), report.percentile(100) <= minIntervalMs + CaptionReplay.TICK_MS);
+    }
+
+    @Test
+    public void showsExactlyTheFinalTranscript() {
+        StringBuilder display = new StringBuilder();
+        CaptionReplay.replay(events, (count, replacement) -> {
+            display.setLength(display.length() - count);
+            display.append(replacement);
+        }, display, CaptionReconciler.DEFAULT_DEBOUNCE_MS, 150);
+        StringBuilder transcript = new StringBuilder();
+        for (CaptionReplay.Event event : events) {
+            if (event.isFinal) {
+                transcript.append(event.text).append(' ');
+            }
+        }
+        assertEquals(transcript.toString(), display.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedTraceIsRejected() throws IOException {
+        CaptionReplay.parse(new StringReader("200 X so\n"));
+    }
+}
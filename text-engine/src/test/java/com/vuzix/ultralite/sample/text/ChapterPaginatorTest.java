@@ -0,0 +1,83 @@
+package com.vuzix.ultralite.sample.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChapterPaginatorTest {
+    private static final int LINES_PER_PAGE = 4;
+
+    private final ChapterPaginator paginator = new ChapterPaginator(
+            new LineBreaker(AdvanceTable.monospace(10f), 200f), LINES_PER_PAGE, TextLog.NONE);
+
+    private static byte[] chapter(int paragraphs) {
+        StringBuilder xhtml = new StringBuilder("<?xml version='1.0' encoding='utf-8'?>\n"
+                + "<html xmlns=\"http://www.w3.org/1999/xhtml\"><body><h1>Chapter</h1>\n");
+        for (int p = 0; p < paragraphs; p++) {
+            xhtml.append("<p>");
+            for (int s = 0; s < 5; s++) {
+                xhtml.append("Paragraph ").append(p).append(" has sentence ").append(s).append(", which is <i>fairly</i> long. ");
+            }
+            xhtml.append("</p>\n");
+        }
+        return xhtml.append("</body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private List<Page> stepByStep(byte[] xhtml) throws IOException {
+        StringBuilder text = new StringBuilder();
+        ParagraphExtractor.extract(new ByteArrayInputStream(xhtml), paragraph -> text.append(paragraph).append(' '));
+        return paginator.paginate(0, text, paginator.wrapChunks(text, SentenceChunker.chunkBounds(text)));
+    }
+
+    private List<Page> streamed(byte[] xhtml) throws IOException {
+        List<Page> pages = new ArrayList<>();
+        int count = paginator.paginate(new ByteArrayInputStream(xhtml), 0, pages::add);
+        assertEquals(pages.size(), count);
+        return pages;
+    }
+
+    @Test
+    public void pagesAreFullExceptTheLast() throws IOException {
+        List<Page> pages = stepByStep(chapter(20));
+        assertTrue(pages.size() > 2);
+        for (int i = 0; i < pages.size(); i++) {
+            Page page = pages.get(i);
+            if (i < pages.size() - 1) {
+                assertEquals(LINES_PER_PAGE, page.lines.length);
+            } else {
+                assertTrue(page.lines.length > 0 && page.lines.length <= LINES_PER_PAGE);
+            }
+            for (String line : page.lines) {
+                assertTrue(line, line.length() <= 20);
+            }
+        }
+    }
+
+    @Test
+    public void streamingMatchesChunkingWrappingThenPaginating() throws IOException {
+        // Long enough that the streamed text is chunked several times before the chapter ends
+        for (int paragraphs : new int[] {0, 1, 3, 50}) {
+            byte[] xhtml = chapter(paragraphs);
+            List<Page> expected = stepByStep(xhtml);
+            List<Page> actual = streamed(xhtml);
+            assertEquals(paragraphs + " paragraphs", expected.size(), actual.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertArrayEquals(paragraphs + " paragraphs, page " + i, expected.get(i).lines, actual.get(i).lines);
+            }
+        }
+    }
+
+    @Test
+    public void shortChunksAreDropped() {
+        String text = "Tiny. ";
+        assertEquals(0, paginator.wrapChunks(text, SentenceChunker.chunkBounds(text)).length);
+    }
+}
@@ -0,0 +1,66 @@
+package com.vuzix.ultralite.sample.text;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LineBreakerTest {
+    // Every character 10 px wide, so a line holds 10 characters
+    private final LineBreaker breaker = new LineBreaker(AdvanceTable.monospace(10f), 100f);
+
+    private List<String> lines(String text) {
+        IntList bounds = new IntList();
+        int added = breaker.breakLines(text, 0, text.length(), bounds);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < bounds.size(); i += 2) {
+            lines.add(text.substring(bounds.get(i), bounds.get(i + 1)));
+        }
+        assertEquals(lines.size(), added);
+        return lines;
+    }
+
+    @Test
+    public void emptyInputHasNoLines() {
+        assertEquals(0, lines("").size());
+        assertEquals(0, lines("   \n ").size());
+    }
+
+    @Test
+    public void breaksAtTheLastWordThatFits() {
+        assertEquals(Arrays.asList("the quick", "brown fox", "jumps"), lines("the quick brown fox jumps"));
+    }
+
+    @Test
+    public void aLineMayBeExactlyFull() {
+        assertEquals(Arrays.asList("abcd efghi", "jk"), lines("abcd efghi jk"));
+    }
+
+    @Test
+    public void overlongWordsAreBrokenBetweenCharacters() {
+        assertEquals(Arrays.asList("a", "bcdefghijk", "lmnopqrstu", "vw x"), lines("a bcdefghijklmnopqrstuvw x"));
+    }
+
+    @Test
+    public void leadingAndTrailingWhitespaceIsDropped() {
+        assertEquals(Arrays.asList("one two"), lines("   one two  \n"));
+    }
+
+    @Test
+    public void whitespaceRunsCountAsOneSpace() {
+        // "one" plus one space plus "two34" is 9 characters, so it fits whatever the run's length
+        assertEquals(Arrays.asList("one     two34"), lines("one     two34"));
+    }
+
+    @Test
+    public void breaksOnlyTheGivenRange() {
+        String text = "skip this: the quick brown fox";
+        IntList bounds = new IntList();
+        breaker.breakLines(text, 11, text.length(), bounds);
+        assertEquals(11, bounds.get(0));
+        assertEquals("the quick", text.substring(bounds.get(0), bounds.get(1)));
+    }
+}
@@ -0,0 +1,42 @@
+package com.vuzix.ultralite.sample.text;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+public class MappedTextStoreTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void readsBackWhatWasAppended() throws IOException {
+        File file = folder.newFile("book.txt");
+        int first;
+        int second;
+        try (MappedTextStore.Writer writer = new MappedTextStore.Writer(file)) {
+            first = writer.append("Alice \u2014 \u201ccurious\u201d ");
+            second = writer.append(new StringBuilder("Down the Rabbit-Hole \ud83d\udc07"));
+        }
+        MappedTextStore store = MappedTextStore.open(file);
+
+        assertEquals(0, first);
+        assertEquals(18, second);
+        // The rabbit is a surrogate pair, two chars
+        assertEquals(second + 23, store.length());
+        assertEquals("Alice \u2014 \u201ccurious\u201d ", store.subSequence(first, second).toString());
+        assertEquals("Down the Rabbit-Hole \ud83d\udc07", store.subSequence(second, store.length()).toString());
+        assertEquals("Rabbit", store.subSequence(second + 9, second + 15).toString());
+    }
+
+    @Test
+    public void emptyStore() throws IOException {
+        File file = folder.newFile("empty.txt");
+        new MappedTextStore.Writer(file).close();
+        assertEquals(0, MappedTextStore.open(file).length());
+    }
+}
@@ -0,0 +1,64 @@
+package com.vuzix.ultralite.sample.text;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ParagraphExtractorTest {
+
+    private static List<String> extract(String body) throws IOException {
+        String xhtml = "<?xml version='1.0' encoding='utf-8'?>\n"
+                + "<html xmlns=\"http://www.w3.org/1999/xhtml\"><body>" + body + "</body></html>";
+        List<String> paragraphs = new ArrayList<>();
+        ParagraphExtractor.extract(new ByteArrayInputStream(xhtml.getBytes(StandardCharsets.UTF_8)), paragraphs::add);
+        return paragraphs;
+    }
+
+    @Test
+    public void decodesXmlAndHtmlEntities() throws IOException {
+        assertEquals(Arrays.asList("Tom & Jerry \u2014 \u201cfriends\u201d\u00a0<3"),
+                extract("<p>Tom &amp; Jerry &mdash; &ldquo;friends&rdquo;&nbsp;&lt;3</p>"));
+    }
+
+    @Test
+    public void breakBecomesASpace() throws IOException {
+        assertEquals(Arrays.asList("Twinkle, twinkle, little bat! How I wonder"),
+                extract("<p>Twinkle, twinkle, little bat!<br/>How I wonder</p>"));
+    }
+
+    @Test
+    public void inlineMarkupContributesItsText() throws IOException {
+        assertEquals(Arrays.asList("Down the Rabbit-Hole, she said"),
+                extract("<p>Down <i>the <a href=\"#x\">Rabbit-Hole</a></i>, she said</p>"));
+    }
+
+    @Test
+    public void nestedBlocksYieldEachParagraphOnce() throws IOException {
+        assertEquals(Arrays.asList("Before", "First", "Between", "Second", "After"),
+                extract("<div>Before<p>First</p>Between<blockquote><p>Second</p></blockquote>After</div>"));
+    }
+
+    @Test
+    public void collapsesWhitespace() throws IOException {
+        assertEquals(Arrays.asList("one two three", "four five"),
+                extract("<p>\n   one \t two\n\nthree  </p><pre>  four\n    five\n</pre>"));
+    }
+
+    @Test
+    public void skipsHeadingsAndEmptyBlocks() throws IOException {
+        assertEquals(Arrays.asList("Text"),
+                extract("<h1>CHAPTER I</h1><p>  </p><div><h2>Title</h2></div><p>Text</p>"));
+    }
+
+    @Test(expected = IOException.class)
+    public void malformedXhtmlIsAnIOException() throws IOException {
+        extract("<p>Unclosed");
+    }
+}
@@ -0,0 +1,60 @@
+package com.vuzix.ultralite.sample.text;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class SentenceChunkerTest {
+
+    @Test
+    public void emptyAndBlankTextHasNoChunks() {
+        assertEquals(0, SentenceChunker.chunkBounds("").length);
+        assertEquals(0, SentenceChunker.chunkBounds("   ").length);
+    }
+
+    @Test
+    public void shortTextIsOneTrimmedChunk() {
+        String text = "  Alice was beginning to get very tired. So she was considering.  ";
+        assertArrayEquals(new int[] {2, text.length() - 2}, SentenceChunker.chunkBounds(text));
+    }
+
+    @Test
+    public void chunksEndOnSentencesAndStayUnderTheMaximum() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            text.append("Sentence number ").append(i).append(" is not a very long one at all. ");
+        }
+        int[] bounds = SentenceChunker.chunkBounds(text);
+        assertTrue(bounds.length > 2);
+        assertEquals(0, bounds[0]);
+        assertEquals(text.length() - 1, bounds[bounds.length - 1]);
+        for (int i = 0; i < bounds.length; i += 2) {
+            int length = bounds[i + 1] - bounds[i];
+            assertTrue("chunk of " + length, length <= SentenceChunker.MAX_CHUNK_LENGTH);
+            assertEquals('.', text.charAt(bounds[i + 1] - 1));
+            if (i > 0) {
+                // The next chunk starts after the single space following the previous sentence
+                assertEquals(bounds[i - 1] + 1, bounds[i]);
+            }
+        }
+    }
+
+    @Test
+    public void shortChunksGrowPastTheMaximum() {
+        // A tiny sentence followed by one that alone nearly fills a chunk is not split off
+        StringBuilder text = new StringBuilder("Oh. ");
+        while (text.length() < SentenceChunker.MAX_CHUNK_LENGTH) {
+            text.append("word ");
+        }
+        text.append("end.");
+        assertArrayEquals(new int[] {0, text.length()}, SentenceChunker.chunkBounds(text));
+    }
+
+    @Test
+    public void punctuationWithoutWhitespaceDoesNotEndASentence() {
+        assertEquals(11, SentenceChunker.sentenceEnd("Mr.Smith ok", 0, 11));
+        assertEquals(4, SentenceChunker.sentenceEnd("Why? Not", 0, 8));
+    }
+}